@@ -0,0 +1,121 @@
+package benchmark;
+
+import model.Budget;
+import model.Category;
+import model.SpendingTracker;
+import model.exceptions.ExpenseDoesNotExistException;
+import model.exceptions.ZeroLengthException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.PartitionedLedger;
+import persistence.PersistenceManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks saving and loading the Easy Budget! file for ledgers of increasing size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PersistenceBenchmark {
+
+    private static final long SEED = 210;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Budget budget;
+    private SpendingTracker tracker;
+    private String filename;
+    private String binaryFilename;
+    private String dirname;
+    private PartitionedLedger partitioned;
+    private String editedId;
+    private int edits;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticLedger ledger = new SyntheticLedger(SEED);
+        budget = ledger.budget();
+        tracker = ledger.spendingTracker(size);
+        filename = "benchmark_" + size + ".json";
+        binaryFilename = "benchmark_" + size + ".bin";
+        PersistenceManager.saveEasyBudget(budget, tracker, filename);
+        PersistenceManager.saveEasyBudgetBinary(budget, tracker, binaryFilename);
+        dirname = "benchmark_" + size + ".ledger";
+        PersistenceManager.saveEasyBudgetPartitioned(budget, tracker, dirname);
+        partitioned = PartitionedLedger.open(dirname);
+        editedId = tracker.getExpenses().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("./data/" + filename));
+        Files.deleteIfExists(Paths.get("./data/" + binaryFilename));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("./data/" + dirname))) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(Paths.get("./data/" + dirname));
+    }
+
+    @Benchmark
+    public String saveEasyBudget() throws IOException {
+        PersistenceManager.saveEasyBudget(budget, tracker, filename);
+        return filename;
+    }
+
+    @Benchmark
+    public SpendingTracker loadSpendingTracker() throws IOException {
+        return PersistenceManager.loadSpendingTracker(filename);
+    }
+
+    @Benchmark
+    public String saveEasyBudgetBinary() throws IOException {
+        PersistenceManager.saveEasyBudgetBinary(budget, tracker, binaryFilename);
+        return binaryFilename;
+    }
+
+    @Benchmark
+    public SpendingTracker loadSpendingTrackerBinary() throws IOException {
+        return PersistenceManager.loadSpendingTracker(binaryFilename);
+    }
+
+    @Benchmark
+    public double openPartitionedForOneMonth() throws IOException {
+        SpendingTracker lazy = PersistenceManager.loadSpendingTracker(dirname);
+        return lazy.totalOf(YearMonth.now(), Category.FOOD);
+    }
+
+    @Benchmark
+    public int openPartitionedForEveryMonth() throws IOException {
+        return PersistenceManager.loadSpendingTracker(dirname).getExpenses().size();
+    }
+
+    @Benchmark
+    public String saveChangesAfterOneEdit() throws IOException, ZeroLengthException,
+            ExpenseDoesNotExistException {
+        partitioned.getSpendingTracker().editVendorOf(editedId, "vendor " + edits++);
+        partitioned.saveChanges(budget);
+        return dirname;
+    }
+}
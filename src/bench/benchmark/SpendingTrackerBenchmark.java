@@ -0,0 +1,134 @@
+package benchmark;
+
+import model.Budget;
+import model.Category;
+import model.Expense;
+import model.ExpenseFilter;
+import model.FilterByCategories;
+import model.FilterByDate;
+import model.SpendingTracker;
+import model.exceptions.CategoryDoesNotExistException;
+import model.exceptions.ExpenseDoesNotExistException;
+import model.exceptions.NoExpenseOfCategoryException;
+import model.exceptions.ZeroLengthException;
+import model.exceptions.ZeroOrLessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks the hot paths of SpendingTracker and Budget against ledgers of increasing size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SpendingTrackerBenchmark {
+
+    private static final long SEED = 210;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private SpendingTracker tracker;
+    private Budget budget;
+    private Expense extra;
+    private String middleId;
+    private Expense[] sample;
+    private int next;
+    private List<ExpenseFilter> currentMonth;
+    private List<ExpenseFilter> currentMonthFood;
+
+    @Setup
+    public void setUp() {
+        SyntheticLedger ledger = new SyntheticLedger(SEED);
+        tracker = ledger.spendingTracker(size);
+        budget = ledger.budget();
+        extra = ledger.expenses(1).get(0);
+        List<Expense> expenses = tracker.getExpenses();
+        middleId = expenses.get(size / 2).getId();
+        sample = new Expense[Math.min(size, 1000)];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = expenses.get(i * (size / sample.length));
+        }
+        currentMonth = new ArrayList<>();
+        currentMonth.add(new FilterByDate(LocalDate.now().getMonth()));
+        currentMonthFood = new ArrayList<>(currentMonth);
+        currentMonthFood.add(new FilterByCategories(Category.FOOD));
+    }
+
+    /*
+     * EFFECTS: adds one expense and deletes it again, so the ledger keeps its size across invocations
+     */
+    @Benchmark
+    public SpendingTracker addExpense() throws ZeroOrLessException, ZeroLengthException,
+            ExpenseDoesNotExistException {
+        tracker.addExpense(extra);
+        tracker.deleteExpense(extra.getId());
+        return tracker;
+    }
+
+    /*
+     * EFFECTS: deletes one of a sample of expenses spread across the ledger and adds it back at the end
+     */
+    @Benchmark
+    public SpendingTracker deleteExpense() throws ZeroOrLessException, ZeroLengthException,
+            ExpenseDoesNotExistException {
+        Expense sampled = sample[next];
+        next = (next + 1) % sample.length;
+        tracker.deleteExpense(sampled.getId());
+        tracker.addExpense(sampled);
+        return tracker;
+    }
+
+    @Benchmark
+    public SpendingTracker editPriceOf() throws ZeroOrLessException, ExpenseDoesNotExistException {
+        tracker.editPriceOf(middleId, 12.34);
+        tracker.editPriceOf(middleId, 43.21);
+        return tracker;
+    }
+
+    @Benchmark
+    public List<Expense> filterCurrentMonth() {
+        return tracker.filter(currentMonth);
+    }
+
+    @Benchmark
+    public List<Expense> filterCurrentMonthAndCategory() {
+        return tracker.filter(currentMonthFood);
+    }
+
+    @Benchmark
+    public double sumCurrentMonthAndCategory() {
+        return tracker.sum(currentMonthFood);
+    }
+
+    /*
+     * EFFECTS: compares every category of the budget to this month's expenses, as the Compare tab does
+     */
+    @Benchmark
+    public int compareToBudget() throws CategoryDoesNotExistException {
+        int compared = 0;
+        for (Category c : Category.values()) {
+            try {
+                compared += budget.compareToBudget(tracker, c);
+            } catch (NoExpenseOfCategoryException e) {
+                compared--;
+            }
+        }
+        return compared;
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import model.Budget;
+import model.Category;
+import model.Expense;
+import model.SpendingTracker;
+import model.exceptions.CannotChangeBudgetException;
+import model.exceptions.ZeroLengthException;
+import model.exceptions.ZeroOrLessException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Generates reproducible budgets and spending trackers of a given size for benchmarking
+public class SyntheticLedger {
+
+    private static final String[] VENDORS = {"Safeway", "Save-On-Foods", "Translink", "BC Hydro", "Shoppers",
+        "Amazon", "Cineplex", "UBC Bookstore", "Costco", "London Drugs", "Starbucks", "Landlord"};
+    private static final String[] DESCRIPTIONS = {"groceries", "bus pass", "rent", "electricity", "pharmacy",
+        "textbook", "movie", "coffee", "insurance premium", "gym membership", "phone bill", "haircut"};
+    private static final int YEARS_OF_HISTORY = 10;
+
+    private final Random random;        // the seeded source of every generated value
+    private final LocalDate lastDate;   // the latest date an expense can be purchased on
+
+    /*
+     * EFFECTS: constructs a generator whose output depends only on seed; expenses are spread over the
+     *          YEARS_OF_HISTORY years up to and including today, so the current month is always populated
+     */
+    public SyntheticLedger(long seed) {
+        random = new Random(seed);
+        lastDate = LocalDate.now();
+    }
+
+    /*
+     * EFFECTS: returns size randomly generated expenses
+     */
+    public List<Expense> expenses(int size) {
+        List<Expense> expenses = new ArrayList<>(size);
+        int days = YEARS_OF_HISTORY * 365;
+        for (int i = 0; i < size; i++) {
+            expenses.add(new Expense(1 + random.nextInt(50000) / 100.0,
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                    VENDORS[random.nextInt(VENDORS.length)],
+                    lastDate.minusDays(random.nextInt(days)),
+                    Category.values()[random.nextInt(Category.values().length)],
+                    new UUID(random.nextLong(), random.nextLong()).toString()));
+        }
+        return expenses;
+    }
+
+    /*
+     * EFFECTS: returns a spending tracker holding size randomly generated expenses
+     */
+    public SpendingTracker spendingTracker(int size) {
+        SpendingTracker tracker = new SpendingTracker();
+        for (Expense e : expenses(size)) {
+            try {
+                tracker.addExpense(e);
+            } catch (ZeroOrLessException | ZeroLengthException e1) {
+                throw new IllegalStateException(e1);
+            }
+        }
+        return tracker;
+    }
+
+    /*
+     * EFFECTS: returns a budget with an item for every category
+     */
+    public Budget budget() {
+        try {
+            Budget budget = new Budget(Category.values().length * 1000);
+            for (Category c : Category.values()) {
+                budget.addBudgetItem(1000, c);
+            }
+            return budget;
+        } catch (ZeroOrLessException | CannotChangeBudgetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
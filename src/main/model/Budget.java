@@ -3,9 +3,10 @@ package model;
 import model.exceptions.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 import persistence.Saveable;
 
-import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -16,6 +17,7 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
 
     private double budgetLimit;                                // the current limit of the budget
     private ArrayList<BudgetItem> items = new ArrayList<>();   // the list of items in the budget
+    private List<LedgerListener> listeners = new ArrayList<>(); // told about every change to the budget
 
     /*
      * REQUIRES: budgetLimit > 0
@@ -37,6 +39,31 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
         return items;
     }
 
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds listener to the listeners told about every change made to the budget from now on
+     */
+    public void addListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  stops telling listener about the changes made to the budget
+     */
+    public void removeListener(LedgerListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+     * EFFECTS: tells every listener that the budget has changed
+     */
+    private void notifyChanged() {
+        for (LedgerListener listener : listeners) {
+            listener.budgetChanged(this);
+        }
+    }
+
     /*
      * REQUIRES: budgetLimit > 0, budgetLimit >= sumOfLimits()
      * MODIFIES: this
@@ -52,8 +79,8 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CannotChangeBudgetException();
         }
         this.budgetLimit = budgetLimit;
-        EventLog.getInstance().logEvent(new Event("Total limit of budget set to $"
-                + String.format("%.2f", budgetLimit)));
+        notifyChanged();
+        EventLog.getInstance().logEvent(new Event(EventType.BUDGET_LIMIT_SET, budgetLimit));
     }
 
     /*
@@ -77,8 +104,8 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CategoryExistsException(b.getCategory());
         }
         items.add(b);
-        EventLog.getInstance().logEvent(new Event("Budget item with category '" + b.getCategory().name
-                + "' and limit $" + String.format("%.2f", b.getLimit()) + " added to budget"));
+        notifyChanged();
+        EventLog.getInstance().logEvent(new Event(EventType.BUDGET_ITEM_ADDED, b.getCategory(), b.getLimit()));
     }
 
     /*
@@ -103,8 +130,8 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CategoryExistsException(category);
         }
         items.add(new BudgetItem(limit, category));
-        EventLog.getInstance().logEvent(new Event("Budget item with category '" + category.name
-                + "' and limit $" + String.format("%.2f", limit) + " added to budget"));
+        notifyChanged();
+        EventLog.getInstance().logEvent(new Event(EventType.BUDGET_ITEM_ADDED, category, limit));
     }
 
     /*
@@ -119,8 +146,8 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CategoryDoesNotExistException(category);
         }
         items.remove(itemToRemove);
-        EventLog.getInstance().logEvent(new Event("Item with category '" + category.name + "' and limit $"
-                + String.format("%.2f", itemToRemove.getLimit()) + " deleted from budget"));
+        notifyChanged();
+        EventLog.getInstance().logEvent(new Event(EventType.BUDGET_ITEM_DELETED, category, itemToRemove.getLimit()));
     }
 
     /*
@@ -183,8 +210,8 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CategoryDoesNotExistException(category);
         }
         itemToEdit.setLimit(newLimit);
-        EventLog.getInstance().logEvent(new Event("Edited limit of budget item with category '"
-                + category.name + "' to $" + String.format("%.2f", newLimit)));
+        notifyChanged();
+        EventLog.getInstance().logEvent(new Event(EventType.BUDGET_ITEM_LIMIT_SET, category, newLimit));
     }
 
     /*
@@ -194,7 +221,7 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
      *           if an item with category does not exist in items, throws CategoryDoesNotExistException
      *           if there is no expense in tracker.getExpenses() of category, throws NoExpenseOfCategoryException
      *           otherwise,
-     *           -  filters tracker.getExpenses() by current month in current year and category
+     *           -  looks up the total of the expenses in tracker of category in the current month
      *           -  if total amount of expenses < spending limit of category, returns -1
      *           -  if total amount of expenses == spending limit of category, returns 0
      *           -  if total amount of expenses > spending limit of category, returns 1
@@ -206,37 +233,15 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
             throw new CategoryDoesNotExistException(category);
         }
 
-        List<ExpenseFilter> expenseFilters = new ArrayList<>();
-        expenseFilters.add(new FilterByDate(LocalDate.now().getMonth()));
-        expenseFilters.add(new FilterByCategories(category));
-        List<Expense> expenses = tracker.filter(expenseFilters);
-        if (!containsExpenseOfCategory(expenses, category)) {
+        YearMonth currentMonth = YearMonth.now();
+        if (tracker.countOf(currentMonth, category) == 0) {
             throw new NoExpenseOfCategoryException(category);
         }
-
-        double expenseSum = 0;
-        for (Expense e: expenses) {
-            if (e.getCategory() == category) {
-                expenseSum += e.getPrice();
-            }
-        }
+        double expenseSum = tracker.totalOf(currentMonth, category);
 
         return Double.compare(expenseSum, budgetItem.getLimit());
     }
 
-    /*
-     * EFFECTS: returns true if at least one expense in expenses has category
-     *          otherwise, returns false
-     */
-    private boolean containsExpenseOfCategory(List<Expense> expenses, Category category) {
-        for (Expense e : expenses) {
-            if (e.getCategory() == category) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /*
      * REQUIRES: jsonObj is not empty
      * EFFECTS:  returns the Budget represented by jsonObj
@@ -273,6 +278,19 @@ public class Budget implements Saveable, Iterable<BudgetItem> {
         return obj;
     }
 
+    /*
+     * MODIFIES: writer
+     * EFFECTS:  writes the Budget to writer as a JSON object, one item at a time
+     */
+    @Override
+    public void writeJson(JSONWriter writer) {
+        writer.object().key("limit").value(budgetLimit).key("items").array();
+        for (BudgetItem b : items) {
+            b.writeJson(writer);
+        }
+        writer.endArray().endObject();
+    }
+
     /*
      * EFFECTS: returns the iterator of items
      */
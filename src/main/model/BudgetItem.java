@@ -2,6 +2,7 @@ package model;
 
 import model.exceptions.ZeroOrLessException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 import persistence.Saveable;
 
 // Represents an item in a budget with a limit and category
@@ -65,4 +66,16 @@ public class BudgetItem implements Saveable {
         return jsonObj;
     }
 
+    /*
+     * MODIFIES: writer
+     * EFFECTS:  writes the BudgetItem to writer as a JSON object, without building a JSONObject
+     */
+    @Override
+    public void writeJson(JSONWriter writer) {
+        writer.object()
+                .key("category").value(category.name)
+                .key("limit").value(limit)
+                .endObject();
+    }
+
 }
@@ -0,0 +1,218 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Represents a list of expense filters folded into a single filter: every date filter is intersected into one
+// date range, every category filter is intersected into one set of categories, and any other filter is kept as is
+public class CompiledFilter implements ExpenseFilter {
+
+    // Represents where the expenses to run this filter over are taken from
+    enum Source { ALL, DATE_INDEX, CATEGORY_INDEX }
+
+    private final LocalDate startDate;          // the start of the date range, or null if there is no date filter
+    private final LocalDate endDate;            // the end of the date range, or null if there is no date filter
+    private final Set<Category> categories;     // the categories to accept, or null if there is no category filter
+    private final List<ExpenseFilter> others;   // the filters that could not be folded, in their original order
+    private final Source source;                // where the expenses are taken from
+    private final int candidateCount;           // the number of expenses the source yields, or -1 if not planned
+    private final boolean dateFirst;            // true if the date range is checked before the categories
+    private final boolean checkDate;            // false if the source already guarantees the date range
+    private final boolean checkCategories;      // false if the source already guarantees the categories
+    private final long startDay;                // the start of the date range in days since 1970-01-01, if any
+    private final long endDay;                  // the end of the date range in days since 1970-01-01, if any
+    private final boolean[] accepted;           // true for the ordinal of each category to accept, if any
+
+    /*
+     * EFFECTS: constructs a compiled filter with the given folded conditions and plan
+     */
+    private CompiledFilter(LocalDate startDate, LocalDate endDate, Set<Category> categories,
+                           List<ExpenseFilter> others, Source source, int candidateCount, boolean dateFirst) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.categories = categories;
+        this.others = others;
+        this.source = source;
+        this.candidateCount = candidateCount;
+        this.dateFirst = dateFirst;
+        this.checkDate = startDate != null && source != Source.DATE_INDEX;
+        this.checkCategories = categories != null && source != Source.CATEGORY_INDEX;
+        this.startDay = startDate == null ? 0 : startDate.toEpochDay();
+        this.endDay = endDate == null ? 0 : endDate.toEpochDay();
+        this.accepted = new boolean[Category.values().length];
+        if (categories != null) {
+            categories.forEach(c -> accepted[c.ordinal()] = true);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the filter accepting exactly the expenses that satisfy every filter in filters,
+     *          planned to check every expense in the order given by filters
+     */
+    public static CompiledFilter compile(List<ExpenseFilter> filters) {
+        LocalDate start = null;
+        LocalDate end = null;
+        Set<Category> categories = null;
+        List<ExpenseFilter> others = new ArrayList<>();
+        for (ExpenseFilter f : filters) {
+            if (f instanceof FilterByDate && isBounded((FilterByDate) f)) {
+                FilterByDate dateFilter = (FilterByDate) f;
+                start = start == null || dateFilter.getStartDate().isAfter(start) ? dateFilter.getStartDate() : start;
+                end = end == null || dateFilter.getEndDate().isBefore(end) ? dateFilter.getEndDate() : end;
+            } else if (f instanceof FilterByCategories) {
+                Set<Category> filterCategories = ((FilterByCategories) f).getCategories();
+                if (categories == null) {
+                    categories = filterCategories.isEmpty()
+                            ? EnumSet.noneOf(Category.class) : EnumSet.copyOf(filterCategories);
+                } else {
+                    categories.retainAll(filterCategories);
+                }
+            } else {
+                others.add(f);
+            }
+        }
+        return new CompiledFilter(start, end, categories, others, Source.ALL, -1, true);
+    }
+
+    /*
+     * EFFECTS: returns true if dateFilter has both a start date and an end date
+     */
+    private static boolean isBounded(FilterByDate dateFilter) {
+        return dateFilter.getStartDate() != null && dateFilter.getEndDate() != null;
+    }
+
+    /*
+     * REQUIRES: inDateRange and inCategories are the number of expenses, out of total, within the date range
+     *           and within the categories of this filter respectively
+     * EFFECTS:  returns an equivalent filter that takes its expenses from whichever index yields the fewest of them,
+     *           skips the condition that index already guarantees, and checks the more selective of the remaining
+     *           conditions first
+     */
+    CompiledFilter plan(int total, int inDateRange, int inCategories) {
+        int byDate = hasDateRange() ? inDateRange : total;
+        int byCategory = hasCategories() ? inCategories : total;
+        Source planned = Source.ALL;
+        if (byDate < total && byDate <= byCategory) {
+            planned = Source.DATE_INDEX;
+        } else if (byCategory < total) {
+            planned = Source.CATEGORY_INDEX;
+        }
+        return new CompiledFilter(startDate, endDate, categories, others, planned, Math.min(byDate, byCategory),
+                byDate <= byCategory);
+    }
+
+    /*
+     * EFFECTS: returns true if no expense can satisfy this filter, i.e. its date range is inverted or its set of
+     *          categories is empty
+     */
+    public boolean matchesNothing() {
+        return (hasDateRange() && startDate.isAfter(endDate)) || (hasCategories() && categories.isEmpty());
+    }
+
+    public boolean hasDateRange() {
+        return startDate != null;
+    }
+
+    public boolean hasCategories() {
+        return categories != null;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public Set<Category> getCategories() {
+        return categories == null ? null : Collections.unmodifiableSet(categories);
+    }
+
+    Source getSource() {
+        return source;
+    }
+
+    int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /*
+     * EFFECTS: if e satisfies every condition of this filter not already guaranteed by its source, returns true
+     *          otherwise returns false
+     */
+    @Override
+    public boolean accept(Expense e) {
+        if (dateFirst) {
+            if (!acceptDate(e) || !acceptCategory(e)) {
+                return false;
+            }
+        } else if (!acceptCategory(e) || !acceptDate(e)) {
+            return false;
+        }
+        for (ExpenseFilter f : others) {
+            if (!f.accept(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * REQUIRES: 0 <= row < columns.size()
+     * EFFECTS:  returns true if the expense in row of columns satisfies every condition of this filter not already
+     *           guaranteed by its source; the date range and categories are checked against the columns themselves,
+     *           and a view of the expense is only made if there are other filters
+     */
+    boolean accept(ExpenseColumns columns, int row) {
+        if (dateFirst) {
+            if (!acceptDay(columns.dayOf(row)) || !acceptOrdinal(columns.categoryOrdinalOf(row))) {
+                return false;
+            }
+        } else if (!acceptOrdinal(columns.categoryOrdinalOf(row)) || !acceptDay(columns.dayOf(row))) {
+            return false;
+        }
+        if (others.isEmpty()) {
+            return true;
+        }
+        Expense e = columns.view(row);
+        for (ExpenseFilter f : others) {
+            if (!f.accept(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * EFFECTS: returns true if the date range does not need checking or day is within it
+     */
+    private boolean acceptDay(long day) {
+        return !checkDate || (day >= startDay && day <= endDay);
+    }
+
+    /*
+     * EFFECTS: returns true if the categories do not need checking or the category with ordinal is one of them
+     */
+    private boolean acceptOrdinal(int ordinal) {
+        return !checkCategories || accepted[ordinal];
+    }
+
+    /*
+     * EFFECTS: returns true if the date range does not need checking or the date of e is within it
+     */
+    private boolean acceptDate(Expense e) {
+        return !checkDate || (e.getDate().compareTo(startDate) >= 0 && e.getDate().compareTo(endDate) <= 0);
+    }
+
+    /*
+     * EFFECTS: returns true if the categories do not need checking or the category of e is one of them
+     */
+    private boolean acceptCategory(Expense e) {
+        return !checkCategories || categories.contains(e.getCategory());
+    }
+}
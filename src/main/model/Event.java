@@ -1,15 +1,19 @@
 package model;
 
-import java.util.Calendar;
+import java.util.Arrays;
 import java.util.Date;
 
 
 /**
  * Represents an application event.
+ * An event records its type and the values it concerns; its description
+ * is only rendered from these when it is first asked for.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
+    private final long timestamp;
+    private final EventType type;
+    private final Object[] values;
     private String description;
 
     /**
@@ -18,8 +22,30 @@ public class Event {
      * @param description  a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(EventType.MESSAGE, description);
+    }
+
+    /**
+     * Creates an event of the given type about the given values
+     * and the current date/time stamp.
+     * @param type  the type of the event
+     * @param values  the values of the event, in the order its type's template refers to them
+     */
+    public Event(EventType type, Object... values) {
+        this(System.currentTimeMillis(), type, values);
+    }
+
+    /**
+     * Creates an event of the given type about the given values,
+     * logged at the given time.
+     * @param timestamp  the time the event was logged, in milliseconds since the epoch
+     * @param type  the type of the event
+     * @param values  the values of the event, in the order its type's template refers to them
+     */
+    Event(long timestamp, EventType type, Object... values) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.values = values;
     }
 
     /**
@@ -27,14 +53,41 @@ public class Event {
      * @return  the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timestamp);
+    }
+
+    /**
+     * Gets the time this event was logged.
+     * @return  the time of the event, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the type of this event.
+     * @return  the type of the event
+     */
+    public EventType getType() {
+        return type;
     }
 
     /**
-     * Gets the description of this event.
+     * Gets the values this event is about.
+     * @return  a copy of the values of the event
+     */
+    public Object[] getValues() {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * Gets the description of this event, rendering it on first use.
      * @return  the description of the event
      */
     public String getDescription() {
+        if (description == null) {
+            description = type.render(values);
+        }
         return description;
     }
 
@@ -50,16 +103,16 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged) && this.description.equals(otherEvent.description));
+        return (this.timestamp == otherEvent.timestamp && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
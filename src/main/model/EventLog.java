@@ -1,26 +1,102 @@
 package model;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a log of application events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * Only the most recent events are kept in memory, in a lock-free queue
+ * that any thread may append to; older events are spilled, oldest first,
+ * to an append-only file and read back from it when the log is iterated.
+ * The file is written on a background thread of the log's own, so logging
+ * never waits on the disk, and events stay in memory until they are written.
+ * The file is a temporary one, deleted when the application exits.
  */
 public class EventLog implements Iterable<Event> {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    /** the number of recent events kept in memory */
+    public static final int CAPACITY = 10000;
+    /** the prefix of the temporary file that older events are spilled to, created for every session */
+    public static final String SPILL_PREFIX = "eventLog";
+
+    private final int capacity;
+    private final Path spillFile;
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean spilling = new AtomicBoolean();
+    private final ExecutorService spiller;
+    private final Object spillLock = new Object();
+    private long spilledCount;
+    private long spilledLength;
+
+    /**
+     * Holds the only EventLog in the system (Singleton Design Pattern),
+     * created by the class loader the first time getInstance is called.
+     */
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<>();
+        this(CAPACITY, newSpillFile());
+    }
+
+    /**
+     * Creates the temporary file that the single EventLog spills to,
+     * to be deleted when the application exits, so that no spill is left among its data.
+     * @return  the new spill file
+     */
+    private static Path newSpillFile() {
+        try {
+            Path spillFile = Files.createTempFile(SPILL_PREFIX, ".spill");
+            spillFile.toFile().deleteOnExit();
+            return spillFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an empty event log that keeps capacity events in memory
+     * and spills older ones to spillFile, discarding any previous contents of spillFile.
+     * @param capacity  the number of recent events kept in memory
+     * @param spillFile  the file older events are spilled to
+     */
+    EventLog(int capacity, Path spillFile) {
+        this.capacity = capacity;
+        this.spillFile = spillFile;
+        this.spiller = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "event log spiller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
     }
 
     /**
@@ -30,19 +106,148 @@ public class EventLog implements Iterable<Event> {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-
-        return theLog;
+        return Holder.THE_LOG;
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log. Safe to call from any thread without locking.
+     * If more than capacity events are in memory, and no spill is already under way,
+     * asks the log's own thread to spill the oldest of them to file; the calling thread never writes.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        events.offer(e);
+        if (size.incrementAndGet() > capacity && spilling.compareAndSet(false, true)) {
+            spiller.execute(this::spillExcess);
+        }
+    }
+
+    /**
+     * Waits until every spill asked for so far has been written, or has failed.
+     * @throws InterruptedException  if interrupted while waiting
+     */
+    void flush() throws InterruptedException {
+        try {
+            spiller.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Spills the oldest events until no more than capacity are in memory, or until a spill fails;
+     * checks again after it is done, so that events logged while it finished are not left over capacity.
+     */
+    private void spillExcess() {
+        boolean written = true;
+        do {
+            try {
+                while (written && size.get() > capacity) {
+                    written = spill(Math.max(1, capacity / 2));
+                }
+            } finally {
+                spilling.set(false);
+            }
+        } while (written && size.get() > capacity && spilling.compareAndSet(false, true));
+    }
+
+    /**
+     * Appends the count oldest in-memory events to the spill file, then removes them from memory.
+     * Only the log's own thread spills, so events reach the file in the order they were logged.
+     * If the file cannot be written, it is cut back to what it held before and the events stay in memory,
+     * to be spilled again once another event is logged.
+     * @param count  the number of events to spill
+     * @return  true if the events were spilled
+     */
+    private boolean spill(int count) {
+        List<Event> oldest = new ArrayList<>(count);
+        for (Iterator<Event> it = events.iterator(); oldest.size() < count && it.hasNext(); ) {
+            oldest.add(it.next());
+        }
+        synchronized (spillLock) {
+            try {
+                append(oldest);
+            } catch (IOException ex) {
+                truncateSpillFile();
+                System.out.println("Could not spill events, keeping them in memory: " + ex.getMessage());
+                return false;
+            }
+            for (int i = 0; i < oldest.size(); i++) {
+                events.poll();
+            }
+            spilledCount += oldest.size();
+            spilledLength = fileLength();
+        }
+        size.addAndGet(-oldest.size());
+        return true;
+    }
+
+    /**
+     * Appends the given events to the spill file, one line each.
+     * @param oldest  the events to append
+     * @throws IOException  if the file cannot be written
+     */
+    private void append(List<Event> oldest) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Event e : oldest) {
+                writer.write(Long.toString(e.getTimestamp()));
+                writer.write('\t');
+                writer.write(escape(e.getDescription()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Cuts the spill file back to the events spilled before, dropping the part of a failed spill that was written.
+     */
+    private void truncateSpillFile() {
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.WRITE)) {
+            channel.truncate(spilledLength);
+        } catch (IOException e) {
+            // nothing of the failed spill reached the file
+        }
+    }
+
+    /**
+     * Returns the length of the spill file in bytes, or 0 if it cannot be read.
+     * @return  the length of the spill file
+     */
+    private long fileLength() {
+        try {
+            return Files.size(spillFile);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Escapes backslashes and line breaks so that a description fits on one line of the spill file.
+     * @param description  the description to escape
+     * @return  the escaped description
+     */
+    private static String escape(String description) {
+        return description.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * Reverses escape.
+     * @param escaped  an escaped description
+     * @return  the original description
+     */
+    private static String unescape(String escaped) {
+        StringBuilder description = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c == '\\' && i + 1 < escaped.length()) {
+                char next = escaped.charAt(++i);
+                description.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                description.append(c);
+            }
+        }
+        return description.toString();
     }
 
     /**
@@ -53,8 +258,74 @@ public class EventLog implements Iterable<Event> {
 //        logEvent(new Event("Event log cleared."));
 //    }
 
+    /**
+     * Iterates over every event logged, oldest first: first those spilled to file,
+     * read back lazily, then those still in memory as of this call.
+     * No spill is under way while the events are taken, so none is missed or repeated;
+     * events spilled after the call are not read back from the file.
+     * @return  an iterator over the events
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        synchronized (spillLock) {
+            List<Event> recent = new ArrayList<>(events);
+            if (spilledCount == 0) {
+                return recent.iterator();
+            }
+            return new SpilledThenRecentIterator(spilledCount, recent.iterator());
+        }
+    }
+
+    /**
+     * Iterates over the first given number of events in the spill file, then over the given recent events.
+     * The spill file is closed once that many have been read.
+     */
+    private class SpilledThenRecentIterator implements Iterator<Event> {
+        private final Iterator<Event> recent;
+        private long unread;
+        private BufferedReader spilled;
+        private String nextLine;
+
+        SpilledThenRecentIterator(long count, Iterator<Event> recent) {
+            this.unread = count;
+            this.recent = recent;
+            try {
+                spilled = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8);
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void advance() throws IOException {
+            nextLine = unread-- > 0 ? spilled.readLine() : null;
+            if (nextLine == null) {
+                spilled.close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null || recent.hasNext();
+        }
+
+        @Override
+        public Event next() {
+            if (nextLine == null) {
+                return recent.next();
+            }
+            int tab = nextLine.indexOf('\t');
+            if (tab < 0) {
+                throw new IllegalStateException("Malformed line in " + spillFile);
+            }
+            Event e = new Event(Long.parseLong(nextLine.substring(0, tab)), EventType.MESSAGE,
+                    unescape(nextLine.substring(tab + 1)));
+            try {
+                advance();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return e;
+        }
     }
 }
@@ -0,0 +1,76 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Represents the kinds of application events, each with a message template.
+ * A template refers to the values of an event by position, as {0}, {1}, and so on.
+ */
+public enum EventType {
+    MESSAGE("{0}"),
+    EXPENSE_ADDED("Expense '{0}' from {1} purchased for ${2} on {3} with category '{4}' added to spending tracker"),
+    EXPENSES_ADDED("{0} expenses purchased for a total of ${1} between {2} and {3} added to spending tracker"),
+    EXPENSE_DELETED("Expense '{0}' from {1} purchased for ${2} on {3} with category '{4}' deleted from spending "
+            + "tracker"),
+    EXPENSE_PRICE_SET("Price of expense '{0}' from {1} purchased on {2} with category '{3}' in spending tracker set "
+            + "to ${4}"),
+    EXPENSE_DESCRIPTION_SET("Description of expense purchased for ${0} from {1} on {2} with category '{3}' in "
+            + "spending tracker set to '{4}'"),
+    EXPENSE_VENDOR_SET("Vendor of expense '{0}' purchased for ${1} on {2} with category '{3}' in spending tracker "
+            + "set to {4}"),
+    EXPENSE_DATE_SET("Purchase date of expense '{0}' purchased for ${1} from {2} with category '{3}' in spending "
+            + "tracker set to {4}"),
+    EXPENSE_CATEGORY_SET("Category of expense '{0}' purchased for ${1} from {2} on {3}' in spending tracker set to "
+            + "'{4}'"),
+    BUDGET_LIMIT_SET("Total limit of budget set to ${0}"),
+    BUDGET_ITEM_ADDED("Budget item with category '{0}' and limit ${1} added to budget"),
+    BUDGET_ITEM_DELETED("Item with category '{0}' and limit ${1} deleted from budget"),
+    BUDGET_ITEM_LIMIT_SET("Edited limit of budget item with category '{0}' to ${1}");
+
+    /** the formatter for dates in messages: weekday, month, day of month, and 4-digit year */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
+
+    private final String template;
+
+    EventType(String template) {
+        this.template = template;
+    }
+
+    /**
+     * Renders the message of an event of this type.
+     * Amounts are shown to two decimal places, dates with FORMATTER and categories by name.
+     * @param values  the values of the event, in the order the template refers to them
+     * @return  the human-readable message
+     */
+    public String render(Object... values) {
+        StringBuilder message = new StringBuilder(template.length() + 32 * values.length);
+        int from = 0;
+        int open = template.indexOf('{');
+        while (open >= 0) {
+            int close = template.indexOf('}', open);
+            message.append(template, from, open);
+            message.append(format(values[Integer.parseInt(template.substring(open + 1, close))]));
+            from = close + 1;
+            open = template.indexOf('{', from);
+        }
+        message.append(template, from, template.length());
+        return message.toString();
+    }
+
+    /**
+     * Formats a single value of an event for its message.
+     * @param value  the value to format
+     * @return  the text shown for value
+     */
+    private static String format(Object value) {
+        if (value instanceof Double) {
+            return String.format("%.2f", (Double) value);
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).format(FORMATTER).replace(".", "");
+        } else if (value instanceof Category) {
+            return ((Category) value).name;
+        }
+        return String.valueOf(value);
+    }
+}
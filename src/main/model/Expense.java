@@ -1,11 +1,14 @@
 package model;
 
 import org.json.JSONObject;
+import org.json.JSONWriter;
 import persistence.Saveable;
 
 import java.time.LocalDate;
 
-// Represents an expense with an amount, description, vendor, date, category, and unique id
+// Represents an expense with an amount, description, vendor, date, category, and unique id. Once it is added to a
+// spending tracker, an expense is a view of a row of the tracker's columns: its details are read from and written to
+// that row rather than kept in its own fields, and it equals every other view of the same row
 public class Expense implements Saveable {
 
     private double price;             // the price of the expense
@@ -14,6 +17,9 @@ public class Expense implements Saveable {
     private LocalDate date;           // the date the expense was purchased on
     private Category category;        // the category that the expense belongs to
     private ExpenseID id;             // the unique id of the expense
+    private long sequence;            // the position of the expense in the order it was added to its tracker
+    private ExpenseColumns columns;   // the columns holding the details above in place of the fields, or null
+    private int row;                  // the row of the expense in columns
 
     /*
      * EFFECTS: constructs an expense with the given information and a random id
@@ -39,48 +45,162 @@ public class Expense implements Saveable {
         this.id = new ExpenseID(id);
     }
 
-    public void setPrice(double price) {
+    /*
+     * EFFECTS: constructs an expense with the given information and an id that has already been parsed
+     */
+    public Expense(double price, String description, String vendor, LocalDate date, Category category, ExpenseID id) {
         this.price = price;
+        this.description = description;
+        this.vendor = vendor;
+        this.date = date;
+        this.category = category;
+        this.id = id;
+    }
+
+    /*
+     * EFFECTS: constructs a copy of e with the same id, which does not change when e does
+     */
+    public Expense(Expense e) {
+        this.price = e.getPrice();
+        this.description = e.getDescription();
+        this.vendor = e.getVendor();
+        this.date = e.getDate();
+        this.category = e.getCategory();
+        this.id = e.getExpenseID();
+        this.sequence = e.getSequence();
+    }
+
+    /*
+     * REQUIRES: 0 <= row < columns.size()
+     * EFFECTS:  constructs a view of the expense in row of columns
+     */
+    Expense(ExpenseColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+    }
+
+    /*
+     * REQUIRES: row of columns holds the details of this expense
+     * MODIFIES: this
+     * EFFECTS:  makes this expense a view of row of columns, dropping the details held in its own fields
+     */
+    void bind(ExpenseColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+        description = null;
+        vendor = null;
+        date = null;
+        category = null;
+        id = null;
+    }
+
+    public void setPrice(double price) {
+        if (columns != null) {
+            columns.setPrice(row, price);
+        } else {
+            this.price = price;
+        }
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        if (columns != null) {
+            columns.setDescription(row, description);
+        } else {
+            this.description = description;
+        }
     }
 
     public void setVendor(String vendor) {
-        this.vendor = vendor;
+        if (columns != null) {
+            columns.setVendor(row, vendor);
+        } else {
+            this.vendor = vendor;
+        }
     }
 
     public void setDate(LocalDate date) {
-        this.date = date;
+        if (columns != null) {
+            columns.setDate(row, date);
+        } else {
+            this.date = date;
+        }
     }
 
     public void setCategory(Category category) {
-        this.category = category;
+        if (columns != null) {
+            columns.setCategory(row, category);
+        } else {
+            this.category = category;
+        }
     }
 
     public double getPrice() {
-        return price;
+        return columns != null ? columns.priceOf(row) : price;
     }
 
     public String getDescription() {
-        return description;
+        return columns != null ? columns.descriptionOf(row) : description;
     }
 
     public String getVendor() {
-        return vendor;
+        return columns != null ? columns.vendorOf(row) : vendor;
     }
 
     public LocalDate getDate() {
-        return date;
+        return columns != null ? columns.dateOf(row) : date;
     }
 
     public Category getCategory() {
-        return category;
+        return columns != null ? columns.categoryOf(row) : category;
     }
 
     public String getId() {
-        return id.getId();
+        return getExpenseID().getId();
+    }
+
+    public ExpenseID getExpenseID() {
+        return columns != null ? columns.idOf(row) : id;
+    }
+
+    public long getSequence() {
+        return columns != null ? columns.sequenceOf(row) : sequence;
+    }
+
+    /*
+     * REQUIRES: this expense is not in a spending tracker
+     * MODIFIES: this
+     * EFFECTS:  sets the sequence number of this expense, which orders it among the expenses of the spending tracker
+     *           it is loaded into through an ExpenseSource
+     */
+    public void setSequence(long sequence) {
+        if (columns != null) {
+            columns.setSequence(row, sequence);
+        } else {
+            this.sequence = sequence;
+        }
+    }
+
+    /*
+     * EFFECTS: returns true if other is this expense, or a view of the same row of the same columns
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Expense) || columns == null) {
+            return false;
+        }
+        Expense otherExpense = (Expense) other;
+        return columns == otherExpense.columns && row == otherExpense.row;
+    }
+
+    /*
+     * EFFECTS: returns a hash code consistent with equals; it changes when the expense is added to a tracker
+     */
+    @Override
+    public int hashCode() {
+        return columns != null ? System.identityHashCode(columns) * 31 + row : System.identityHashCode(this);
     }
 
     /*
@@ -102,13 +222,29 @@ public class Expense implements Saveable {
     @Override
     public JSONObject saveToJson() {
         JSONObject jsonObj = new JSONObject();
-        jsonObj.put("id", id.getId());
-        jsonObj.put("price", price);
-        jsonObj.put("description", description);
-        jsonObj.put("vendor", vendor);
-        jsonObj.put("date", date.toString());
-        jsonObj.put("category", category.name);
+        jsonObj.put("id", getId());
+        jsonObj.put("price", getPrice());
+        jsonObj.put("description", getDescription());
+        jsonObj.put("vendor", getVendor());
+        jsonObj.put("date", getDate().toString());
+        jsonObj.put("category", getCategory().name);
         return jsonObj;
     }
 
+    /*
+     * MODIFIES: writer
+     * EFFECTS:  writes the Expense to writer as a JSON object, without building a JSONObject
+     */
+    @Override
+    public void writeJson(JSONWriter writer) {
+        writer.object()
+                .key("id").value(getId())
+                .key("price").value(getPrice())
+                .key("description").value(getDescription())
+                .key("vendor").value(getVendor())
+                .key("date").value(getDate().toString())
+                .key("category").value(getCategory().name)
+                .endObject();
+    }
+
 }
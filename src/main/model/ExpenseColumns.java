@@ -0,0 +1,363 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Represents the details of the expenses of a spending tracker, held column by column in parallel arrays of
+// primitives with one row per expense: the price in cents, the date as a number of days since 1970-01-01, the category
+// as its ordinal, the description and the vendor as codes into a dictionary of each, the id as its 128 bits and the
+// sequence number. A row costs about 60 bytes, and a scan over one column reads memory in order. A price that is not a
+// whole number of cents, a date too far off for an int and an id that is not a UUID are kept aside by row instead.
+// Rows are read and changed through views, which are Expense objects bound to a row; a row is never reused, so a view
+// of a deleted expense keeps its last details. The columns also index the rows of the expenses still in the tracker by
+// id. They are not safe to change from several threads at once, but views can read them meanwhile
+public class ExpenseColumns {
+
+    private static final int INITIAL_CAPACITY = 16;             // the number of rows room is first made for
+    private static final long NOT_IN_CENTS = Long.MIN_VALUE;    // the cents of a price kept in otherPrices
+    private static final int NOT_AN_INT = Integer.MIN_VALUE;    // the day of a date kept in otherDates
+    private static final Category[] CATEGORIES = Category.values();
+
+    private long[] cents;                           // the price of each row in cents, or NOT_IN_CENTS
+    private int[] days;                             // the date of each row in days since 1970-01-01, or NOT_AN_INT
+    private byte[] categories;                      // the ordinal of the category of each row
+    private int[] descriptions;                     // the code of the description of each row
+    private int[] vendors;                          // the code of the vendor of each row
+    private long[] idHighs;                         // the high 64 bits of the id of each row, if it is a UUID
+    private long[] idLows;                          // the low 64 bits of the id of each row, if it is a UUID
+    private long[] sequences;                       // the sequence number of each row
+    private int size;                               // the number of rows, those of deleted expenses included
+    private final Map<Integer, Double> otherPrices;     // the prices that are not a whole number of cents, by row
+    private final Map<Integer, LocalDate> otherDates;   // the dates whose day does not fit in an int, by row
+    private final Map<Integer, String> textIds;         // the ids that are not UUIDs, by row
+    private final Map<Long, LocalDate> dates;           // one shared instance of each date read through a view
+    private final StringDictionary descriptionCodes;    // the descriptions of the rows
+    private final StringDictionary vendorCodes;         // the vendors of the rows
+    private int[] idTable;                          // the row plus one of each indexed UUID id, at the slot its hash
+                                                    // probes to; 0 marks an empty slot
+    private int idCount;                            // the number of rows in idTable
+    private final Map<String, Integer> textRows;    // the row of each indexed id that is not a UUID
+
+    /*
+     * EFFECTS: constructs columns with no rows
+     */
+    public ExpenseColumns() {
+        cents = new long[INITIAL_CAPACITY];
+        days = new int[INITIAL_CAPACITY];
+        categories = new byte[INITIAL_CAPACITY];
+        descriptions = new int[INITIAL_CAPACITY];
+        vendors = new int[INITIAL_CAPACITY];
+        idHighs = new long[INITIAL_CAPACITY];
+        idLows = new long[INITIAL_CAPACITY];
+        sequences = new long[INITIAL_CAPACITY];
+        otherPrices = new ConcurrentHashMap<>();
+        otherDates = new ConcurrentHashMap<>();
+        textIds = new ConcurrentHashMap<>();
+        dates = new ConcurrentHashMap<>();
+        descriptionCodes = new StringDictionary();
+        vendorCodes = new StringDictionary();
+        idTable = new int[INITIAL_CAPACITY * 2];
+        textRows = new HashMap<>();
+    }
+
+    /*
+     * EFFECTS: returns the number of rows, those of deleted expenses included
+     */
+    public int size() {
+        return size;
+    }
+
+    /*
+     * REQUIRES: e.getDescription(), e.getVendor(), e.getDate() and e.getCategory() are not null
+     * MODIFIES: this
+     * EFFECTS:  adds a row holding the details of e with sequence, and returns it; the row is not indexed by id
+     */
+    int add(Expense e, long sequence) {
+        if (size == sequences.length) {
+            grow();
+        }
+        int row = size;
+        setPrice(row, e.getPrice());
+        setDescription(row, e.getDescription());
+        setVendor(row, e.getVendor());
+        setDate(row, e.getDate());
+        setCategory(row, e.getCategory());
+        ExpenseID id = e.getExpenseID();
+        if (id.isUuid()) {
+            idHighs[row] = id.getMostSigBits();
+            idLows[row] = id.getLeastSigBits();
+        } else {
+            textIds.put(row, id.getId());
+        }
+        sequences[row] = sequence;
+        size++;
+        return row;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  makes room for half as many rows again
+     */
+    private void grow() {
+        int capacity = sequences.length + (sequences.length >> 1);
+        cents = Arrays.copyOf(cents, capacity);
+        days = Arrays.copyOf(days, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        vendors = Arrays.copyOf(vendors, capacity);
+        idHighs = Arrays.copyOf(idHighs, capacity);
+        idLows = Arrays.copyOf(idLows, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns a view of the expense in row
+     */
+    public Expense view(int row) {
+        return new Expense(this, row);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the price of the expense in row
+     */
+    public double priceOf(int row) {
+        long inCents = cents[row];
+        return inCents == NOT_IN_CENTS ? otherPrices.get(row) : inCents / 100.0;
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the date of the expense in row as a number of days since 1970-01-01
+     */
+    public long dayOf(int row) {
+        int day = days[row];
+        return day == NOT_AN_INT ? otherDates.get(row).toEpochDay() : day;
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the date of the expense in row; every view of a row with the same date gets the same instance
+     */
+    public LocalDate dateOf(int row) {
+        int day = days[row];
+        if (day == NOT_AN_INT) {
+            return otherDates.get(row);
+        }
+        return dates.computeIfAbsent((long) day, LocalDate::ofEpochDay);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the ordinal of the category of the expense in row
+     */
+    public int categoryOrdinalOf(int row) {
+        return categories[row];
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the category of the expense in row
+     */
+    public Category categoryOf(int row) {
+        return CATEGORIES[categories[row]];
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the description of the expense in row
+     */
+    public String descriptionOf(int row) {
+        return descriptionCodes.valueOf(descriptions[row]);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the vendor of the expense in row; every row with an equal vendor gives the same instance
+     */
+    public String vendorOf(int row) {
+        return vendorCodes.valueOf(vendors[row]);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the id of the expense in row
+     */
+    public ExpenseID idOf(int row) {
+        String text = textIds.get(row);
+        return text == null ? new ExpenseID(idHighs[row], idLows[row]) : new ExpenseID(text);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * EFFECTS:  returns the sequence number of the expense in row
+     */
+    public long sequenceOf(int row) {
+        return sequences[row];
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * MODIFIES: this
+     * EFFECTS:  sets the price of the expense in row to price, in cents if it is a whole number of them
+     */
+    void setPrice(int row, double price) {
+        long inCents = Math.round(price * 100);
+        if (inCents != NOT_IN_CENTS && inCents / 100.0 == price) {
+            cents[row] = inCents;
+            otherPrices.remove(row);
+        } else {
+            otherPrices.put(row, price);
+            cents[row] = NOT_IN_CENTS;
+        }
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size() AND date != null
+     * MODIFIES: this
+     * EFFECTS:  sets the date of the expense in row to date, as a number of days if it fits in an int
+     */
+    void setDate(int row, LocalDate date) {
+        long day = date.toEpochDay();
+        if (day > NOT_AN_INT && day <= Integer.MAX_VALUE) {
+            days[row] = (int) day;
+            otherDates.remove(row);
+        } else {
+            otherDates.put(row, date);
+            days[row] = NOT_AN_INT;
+        }
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size() AND category != null
+     * MODIFIES: this
+     * EFFECTS:  sets the category of the expense in row to category
+     */
+    void setCategory(int row, Category category) {
+        categories[row] = (byte) category.ordinal();
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size() AND description != null
+     * MODIFIES: this
+     * EFFECTS:  sets the description of the expense in row to description
+     */
+    void setDescription(int row, String description) {
+        descriptions[row] = descriptionCodes.codeOf(description);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size() AND vendor != null
+     * MODIFIES: this
+     * EFFECTS:  sets the vendor of the expense in row to vendor
+     */
+    void setVendor(int row, String vendor) {
+        vendors[row] = vendorCodes.codeOf(vendor);
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * MODIFIES: this
+     * EFFECTS:  sets the sequence number of the expense in row to sequence
+     */
+    void setSequence(int row, long sequence) {
+        sequences[row] = sequence;
+    }
+
+    /*
+     * EFFECTS: returns the row indexed under id, or -1 if there is none
+     */
+    public int rowOf(ExpenseID id) {
+        if (!id.isUuid()) {
+            return textRows.getOrDefault(id.getId(), -1);
+        }
+        int slot = slotOf(id.getMostSigBits(), id.getLeastSigBits(), idTable);
+        return idTable[slot] - 1;
+    }
+
+    /*
+     * REQUIRES: 0 <= row < size()
+     * MODIFIES: this
+     * EFFECTS:  indexes row under its id and returns true, unless a row is already indexed under it, in which case
+     *           returns false and leaves the index as it is
+     */
+    boolean index(int row) {
+        if (textIds.containsKey(row)) {
+            return textRows.putIfAbsent(textIds.get(row), row) == null;
+        }
+        int slot = slotOf(idHighs[row], idLows[row], idTable);
+        if (idTable[slot] != 0) {
+            return false;
+        }
+        idTable[slot] = row + 1;
+        idCount++;
+        if (idCount * 2 > idTable.length) {
+            rehash(idTable.length * 2);
+        }
+        return true;
+    }
+
+    /*
+     * REQUIRES: row is indexed under its id
+     * MODIFIES: this
+     * EFFECTS:  removes row from the index; each row after it in the same cluster of slots is moved back into the
+     *           slot freed if that is where its probe reaches first, so no lookup is cut short by the gap
+     */
+    void unindex(int row) {
+        if (textIds.containsKey(row)) {
+            textRows.remove(textIds.get(row), row);
+            return;
+        }
+        int mask = idTable.length - 1;
+        int gap = slotOf(idHighs[row], idLows[row], idTable);
+        for (int slot = (gap + 1) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(idHighs[idTable[slot] - 1], idLows[idTable[slot] - 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                idTable[gap] = idTable[slot];
+                gap = slot;
+            }
+        }
+        idTable[gap] = 0;
+        idCount--;
+    }
+
+    /*
+     * EFFECTS: returns the slot of table holding the row with the UUID id of high and low, or the empty slot where it
+     *          belongs
+     */
+    private int slotOf(long high, long low, int[] table) {
+        int mask = table.length - 1;
+        int slot = hash(high, low) & mask;
+        while (table[slot] != 0 && (idHighs[table[slot] - 1] != high || idLows[table[slot] - 1] != low)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /*
+     * REQUIRES: capacity is a power of two greater than the number of rows indexed by UUID
+     * MODIFIES: this
+     * EFFECTS:  moves every row indexed by UUID into a table of capacity slots
+     */
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        for (int entry : idTable) {
+            if (entry != 0) {
+                rehashed[slotOf(idHighs[entry - 1], idLows[entry - 1], rehashed)] = entry;
+            }
+        }
+        idTable = rehashed;
+    }
+
+    /*
+     * EFFECTS: returns a hash of the UUID with high and low as its bits, whose low bits pick the slot
+     */
+    private static int hash(long high, long low) {
+        long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
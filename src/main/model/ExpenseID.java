@@ -4,24 +4,106 @@ import java.util.UUID;
 
 // Represents a unique identifier for an expense
 public class ExpenseID {
-    
-    private final String id;
+
+    private final long mostSigBits;     // the high 64 bits of the id, if it is a UUID
+    private final long leastSigBits;    // the low 64 bits of the id, if it is a UUID
+    private final String id;            // the id itself, if it is not a UUID; otherwise null
 
     /*
-     * EFFECTS: constructs a new ExpenseID using a random UUID string
+     * EFFECTS: constructs a new ExpenseID using a random UUID
      */
     public ExpenseID() {
-        id = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
+        mostSigBits = uuid.getMostSignificantBits();
+        leastSigBits = uuid.getLeastSignificantBits();
+        id = null;
     }
 
     /*
-     * EFFECTS: constructs a new ExpenseID with an existing string id
+     * EFFECTS: constructs a new ExpenseID with an existing string id;
+     *          an id in canonical UUID form is kept as its 128 bits rather than as a string
      */
     public ExpenseID(String id) {
-        this.id = id;
+        UUID uuid = parseUUID(id);
+        if (uuid == null) {
+            mostSigBits = 0;
+            leastSigBits = 0;
+            this.id = id;
+        } else {
+            mostSigBits = uuid.getMostSignificantBits();
+            leastSigBits = uuid.getLeastSignificantBits();
+            this.id = null;
+        }
+    }
+
+    /*
+     * EFFECTS: constructs a new ExpenseID from the 128 bits of a UUID
+     */
+    public ExpenseID(long mostSigBits, long leastSigBits) {
+        this.mostSigBits = mostSigBits;
+        this.leastSigBits = leastSigBits;
+        this.id = null;
+    }
+
+    /*
+     * EFFECTS: returns the UUID represented by id if id is a UUID in canonical (lower-case, 36-character) form,
+     *          otherwise returns null
+     */
+    private static UUID parseUUID(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /*
+     * EFFECTS: returns true if the id is a UUID kept as its 128 bits, false if it is kept as a string
+     */
+    public boolean isUuid() {
+        return id == null;
+    }
+
+    public long getMostSigBits() {
+        return mostSigBits;
+    }
+
+    public long getLeastSigBits() {
+        return leastSigBits;
     }
 
     public String getId() {
-        return id;
+        if (id != null) {
+            return id;
+        }
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        ExpenseID otherId = (ExpenseID) other;
+        if (id != null || otherId.id != null) {
+            return id != null && id.equals(otherId.id);
+        }
+        return mostSigBits == otherId.mostSigBits && leastSigBits == otherId.leastSigBits;
+    }
+
+    @Override
+    public int hashCode() {
+        if (id != null) {
+            return id.hashCode();
+        }
+        long bits = mostSigBits ^ leastSigBits;
+        return (int) (bits >> 32) ^ (int) bits;
     }
 }
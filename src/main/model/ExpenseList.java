@@ -0,0 +1,321 @@
+package model;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+// Represents a list of rows of an ExpenseColumns kept in the order of the sequence numbers of their expenses, from
+// which any row can be removed in O(log n): it is found by binary search and marked removed in place rather than
+// shifting the rest down, and the list is compacted once half of its slots are removed, so a run of removals takes
+// amortized O(log n) each. Read as a collection, it holds a view of the expense in each row
+public class ExpenseList extends AbstractCollection<Expense> {
+
+    private static final int INITIAL_CAPACITY = 4;      // the number of rows room is first made for
+
+    private final ExpenseColumns columns;   // the columns the rows are in
+    private int[] slots;                    // the rows, removed ones included, in order of sequence number
+    private int slotCount;                  // the number of slots in use
+    private final BitSet removed;           // the indexes of the slots whose rows have been removed
+    private int removedCount;               // the number of such slots
+    private int size;                       // the number of slots whose rows have not been removed
+
+    /*
+     * EFFECTS: constructs an empty list of rows of columns
+     */
+    public ExpenseList(ExpenseColumns columns) {
+        this.columns = columns;
+        slots = new int[INITIAL_CAPACITY];
+        removed = new BitSet();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * REQUIRES: no row in the list has the sequence number of row
+     * MODIFIES: this
+     * EFFECTS:  adds row to the list in the order of its sequence number; in O(1) if it comes after every row in the
+     *           list, as it does when its expense has just been added to its tracker
+     */
+    public void add(int row) {
+        long sequence = columns.sequenceOf(row);
+        ensureCapacity(slotCount + 1);
+        if (slotCount == 0 || sequence > columns.sequenceOf(slots[slotCount - 1])) {
+            slots[slotCount++] = row;
+        } else {
+            compact();
+            int index = -indexOf(sequence) - 1;
+            System.arraycopy(slots, index, slots, index + 1, slotCount - index);
+            slots[index] = row;
+            slotCount++;
+        }
+        size++;
+    }
+
+    /*
+     * REQUIRES: no row in the list has the sequence number of a row base + p for a p in positions
+     * MODIFIES: this
+     * EFFECTS:  adds the row base + p for each p in positions to the list in the order of their sequence numbers;
+     *           the list is sorted again only if they do not all come after it in order
+     */
+    public void addAll(int[] positions, int base) {
+        long last = slotCount == 0 ? Long.MIN_VALUE : columns.sequenceOf(slots[slotCount - 1]);
+        boolean inOrder = true;
+        for (int position : positions) {
+            long sequence = columns.sequenceOf(base + position);
+            inOrder &= sequence > last;
+            last = sequence;
+        }
+        append(positions, base);
+        if (!inOrder) {
+            sortBySequence();
+        }
+    }
+
+    /*
+     * REQUIRES: sortBySequence is called before the list is next read or removed from, unless every row added comes
+     *           after the ones in the list in order
+     * MODIFIES: this
+     * EFFECTS:  adds the row base + p for each p in positions to the end of the list, so that several runs can be
+     *           sorted into order once
+     */
+    public void append(int[] positions, int base) {
+        ensureCapacity(slotCount + positions.length);
+        for (int position : positions) {
+            slots[slotCount++] = base + position;
+        }
+        size += positions.length;
+    }
+
+    /*
+     * REQUIRES: as for append(positions, base)
+     * MODIFIES: this
+     * EFFECTS:  adds the count rows from first on to the end of the list, as append(positions, base) does
+     */
+    public void append(int first, int count) {
+        ensureCapacity(slotCount + count);
+        for (int row = first; row < first + count; row++) {
+            slots[slotCount++] = row;
+        }
+        size += count;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  puts the rows of the list into the order of their sequence numbers; a list made of runs already in
+     *           order is sorted by merging them, a pair of runs at a time
+     */
+    public void sortBySequence() {
+        compact();
+        if (runEnd(slots, 0) == slotCount) {
+            return;
+        }
+        int[] from = slots;
+        int[] into = new int[slotCount];
+        while (mergeRuns(from, into) > 1) {
+            int[] merged = into;
+            into = from;
+            from = merged;
+        }
+        slots = into;
+    }
+
+    /*
+     * REQUIRES: from and into have room for slotCount rows
+     * MODIFIES: into
+     * EFFECTS:  merges each pair of runs in order in the first slotCount rows of from into into, and returns the
+     *           number of runs into is left with
+     */
+    private int mergeRuns(int[] from, int[] into) {
+        int runs = 0;
+        for (int start = 0; start < slotCount; runs++) {
+            int middle = runEnd(from, start);
+            int end = middle == slotCount ? middle : runEnd(from, middle);
+            int left = start;
+            int right = middle;
+            for (int i = start; i < end; i++) {
+                boolean leftFirst = right == end
+                        || (left < middle && columns.sequenceOf(from[left]) < columns.sequenceOf(from[right]));
+                into[i] = leftFirst ? from[left++] : from[right++];
+            }
+            start = end;
+        }
+        return runs;
+    }
+
+    /*
+     * EFFECTS: returns the index after the run of rows in order that starts at start among the first slotCount rows
+     *          of rows
+     */
+    private int runEnd(int[] rows, int start) {
+        int end = start + 1;
+        while (end < slotCount && columns.sequenceOf(rows[end - 1]) < columns.sequenceOf(rows[end])) {
+            end++;
+        }
+        return Math.min(end, slotCount);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  removes row from the list and returns true, in amortized O(log n); returns false if row is not in it
+     */
+    public boolean remove(int row) {
+        int index = indexOf(columns.sequenceOf(row));
+        if (index < 0 || slots[index] != row || removed.get(index)) {
+            return false;
+        }
+        removed.set(index);
+        removedCount++;
+        size--;
+        if (removedCount * 2 > slotCount) {
+            compact();
+        }
+        return true;
+    }
+
+    /*
+     * EFFECTS: returns a view of the expense in each row of the list, in order; if the list changes while they are
+     *          being iterated, the iterator stays within the list but may skip or repeat rows
+     */
+    @Override
+    public Iterator<Expense> iterator() {
+        PrimitiveIterator.OfInt rows = rows();
+        return new Iterator<Expense>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Expense next() {
+                return columns.view(rows.nextInt());
+            }
+        };
+    }
+
+    /*
+     * EFFECTS: returns the rows of the list in order, as iterator does
+     */
+    public PrimitiveIterator.OfInt rows() {
+        return rowsFrom(0);
+    }
+
+    /*
+     * EFFECTS: returns the rows of the list whose sequence numbers are greater than sequence, in order; the first of
+     *          them is found in O(log n)
+     */
+    public PrimitiveIterator.OfInt rowsAfter(long sequence) {
+        int index = indexOf(sequence);
+        return rowsFrom(index >= 0 ? index + 1 : -index - 1);
+    }
+
+    /*
+     * EFFECTS: returns the rows of the list from slot index on, in order, as iterator does
+     */
+    private PrimitiveIterator.OfInt rowsFrom(int index) {
+        return new PrimitiveIterator.OfInt() {
+            private int next = nextIndex(index);     // the index of the next slot not removed
+
+            @Override
+            public boolean hasNext() {
+                return next < slotCount;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int row = slots[next];
+                next = nextIndex(next + 1);
+                return row;
+            }
+        };
+    }
+
+    /*
+     * EFFECTS: returns a stream of the rows of the list in order, which splits evenly for parallel streams whether or
+     *          not any have been removed
+     */
+    public IntStream rowStream() {
+        int[] rows = slots;
+        IntStream indexes = IntStream.range(0, slotCount);
+        if (removedCount == 0) {
+            return indexes.map(i -> rows[i]);
+        }
+        BitSet gone = (BitSet) removed.clone();
+        return indexes.filter(i -> !gone.get(i)).map(i -> rows[i]);
+    }
+
+    /*
+     * EFFECTS: returns a spliterator over views of the expenses in the rows of the list, in order, which splits
+     *          evenly for parallel streams
+     */
+    @Override
+    public Spliterator<Expense> spliterator() {
+        return rowStream().mapToObj(columns::view).spliterator();
+    }
+
+    /*
+     * EFFECTS: returns the index of the first slot from index on whose row has not been removed, or the number of
+     *          slots if there is none
+     */
+    private int nextIndex(int index) {
+        return Math.min(removed.nextClearBit(index), slotCount);
+    }
+
+    /*
+     * EFFECTS: returns the index of the slot holding the row with sequence, or (-(insertion point) - 1) if there is
+     *          none, as Arrays.binarySearch does
+     */
+    private int indexOf(long sequence) {
+        int low = 0;
+        int high = slotCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = columns.sequenceOf(slots[middle]);
+            if (found < sequence) {
+                low = middle + 1;
+            } else if (found > sequence) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  makes room for at least capacity slots
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(capacity, slots.length * 2));
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  drops the slots of removed rows, keeping the rest in order
+     */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = nextIndex(0); i < slotCount; i = nextIndex(i + 1)) {
+            slots[kept++] = slots[i];
+        }
+        slotCount = kept;
+        removed.clear();
+        removedCount = 0;
+    }
+}
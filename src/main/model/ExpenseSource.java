@@ -0,0 +1,43 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Represents a store of expenses kept one month at a time, from which a spending tracker loads each month only once
+// one of its queries reaches it
+public interface ExpenseSource {
+
+    /*
+     * EFFECTS: returns the months the source holds expenses for
+     */
+    Set<YearMonth> months();
+
+    /*
+     * EFFECTS: returns a sequence number greater than that of every expense in the source
+     */
+    long nextSequence();
+
+    /*
+     * REQUIRES: months().contains(month)
+     * EFFECTS:  returns the expenses of month, each with the sequence number it had in the tracker it was saved
+     *           from; throws UncheckedIOException if they cannot be read
+     */
+    List<Expense> load(YearMonth month);
+
+    /*
+     * REQUIRES: months().containsAll(months)
+     * EFFECTS:  returns the expenses of each month in months, as load returns them, in date order; by default the
+     *           months are loaded one after another
+     */
+    default Map<YearMonth, List<Expense>> loadAll(Collection<YearMonth> months) {
+        Map<YearMonth, List<Expense>> loaded = new TreeMap<>();
+        for (YearMonth month : months) {
+            loaded.put(month, load(month));
+        }
+        return loaded;
+    }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -23,6 +24,10 @@ public class FilterByCategories implements ExpenseFilter {
         this.categories = categories;
     }
 
+    public Set<Category> getCategories() {
+        return Collections.unmodifiableSet(categories);
+    }
+
     /*
      * EFFECTS: if the category of e is in categories, returns true
      *          otherwise returns false
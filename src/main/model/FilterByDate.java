@@ -38,6 +38,14 @@ public class FilterByDate implements ExpenseFilter {
 
     }
 
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
     public void setStartDate(LocalDate startDate) {
         this.startDate = startDate;
     }
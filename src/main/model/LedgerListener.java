@@ -0,0 +1,21 @@
+package model;
+
+// Represents an observer that is told about every change made to a spending tracker or a budget, right after it is
+// made and before the next change can be made
+public interface LedgerListener {
+
+    /*
+     * EFFECTS: called after e is added to a spending tracker, or after one of its details is changed
+     */
+    void expenseSaved(Expense e);
+
+    /*
+     * EFFECTS: called after e is deleted from a spending tracker
+     */
+    void expenseDeleted(Expense e);
+
+    /*
+     * EFFECTS: called after the total limit of b, or one of its items, is added, changed or deleted
+     */
+    void budgetChanged(Budget b);
+}
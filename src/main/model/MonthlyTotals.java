@@ -0,0 +1,111 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Represents the running total and number of expenses in each category for each month
+public class MonthlyTotals {
+
+    private final Map<YearMonth, EnumMap<Category, Total>> totals = new HashMap<>(); // the totals of each month
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds the price of e to the total of its category in its month
+     */
+    public void add(Expense e) {
+        totals.computeIfAbsent(YearMonth.from(e.getDate()), month -> new EnumMap<>(Category.class))
+                .computeIfAbsent(e.getCategory(), category -> new Total())
+                .add(e.getPrice());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds the price of every expense in batch to the total of its category in its month; the batch is
+     *           totalled on its own first, so each month and category it touches is looked up only once
+     */
+    public void addAll(Collection<Expense> batch) {
+        MonthlyTotals ofBatch = new MonthlyTotals();
+        for (Expense e : batch) {
+            ofBatch.add(e);
+        }
+        addAll(ofBatch);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds each total of other to the total of the same category in the same month
+     */
+    public void addAll(MonthlyTotals other) {
+        other.totals.forEach((month, ofMonth) -> {
+            EnumMap<Category, Total> into = totals.computeIfAbsent(month, m -> new EnumMap<>(Category.class));
+            ofMonth.forEach((category, total) -> into.computeIfAbsent(category, c -> new Total()).add(total));
+        });
+    }
+
+    /*
+     * REQUIRES: e was previously added with its current price, date and category
+     * MODIFIES: this
+     * EFFECTS:  subtracts the price of e from the total of its category in its month
+     */
+    public void remove(Expense e) {
+        YearMonth month = YearMonth.from(e.getDate());
+        EnumMap<Category, Total> ofMonth = totals.get(month);
+        Total total = ofMonth.get(e.getCategory());
+        total.remove(e.getPrice());
+        if (total.count == 0) {
+            ofMonth.remove(e.getCategory());
+            if (ofMonth.isEmpty()) {
+                totals.remove(month);
+            }
+        }
+    }
+
+    /*
+     * EFFECTS: returns the sum of the prices of the expenses of category in month
+     */
+    public double totalOf(YearMonth month, Category category) {
+        Total total = find(month, category);
+        return total == null ? 0 : total.sum.doubleValue();
+    }
+
+    /*
+     * EFFECTS: returns the number of expenses of category in month
+     */
+    public int countOf(YearMonth month, Category category) {
+        Total total = find(month, category);
+        return total == null ? 0 : total.count;
+    }
+
+    /*
+     * EFFECTS: returns the total of category in month, or null if there are no such expenses
+     */
+    private Total find(YearMonth month, Category category) {
+        EnumMap<Category, Total> ofMonth = totals.get(month);
+        return ofMonth == null ? null : ofMonth.get(category);
+    }
+
+    // Represents the exact sum and number of the prices in one category of one month
+    private static class Total {
+        private BigDecimal sum = BigDecimal.ZERO;   // kept exact so that removing a price undoes adding it
+        private int count;
+
+        private void add(double price) {
+            sum = sum.add(BigDecimal.valueOf(price));
+            count++;
+        }
+
+        private void add(Total other) {
+            sum = sum.add(other.sum);
+            count += other.count;
+        }
+
+        private void remove(double price) {
+            sum = sum.subtract(BigDecimal.valueOf(price));
+            count--;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Represents the expenses of one month of an ExpenseSource, indexed by date and by category and totalled on their
+// own, so that the months a spending tracker loads together can be indexed in parallel before they are merged into it;
+// the indexes hold the positions of the expenses in the order they were added, which become their rows once the
+// expenses are added to the tracker's columns in that order
+public class PartitionIndex {
+
+    private final List<Expense> expenses;                   // the expenses, in the order they were added
+    private final TreeMap<LocalDate, int[]> byDate;         // the positions of the expenses of each date, in order
+    private final EnumMap<Category, int[]> byCategory;      // the positions of the expenses of each category, in order
+    private final MonthlyTotals totals;                     // the total spent in each category
+
+    /*
+     * MODIFIES: expenses
+     * EFFECTS:  sorts expenses into the order of their sequence numbers and indexes them by date and category; the
+     *           expenses are only read, so months can be indexed on separate threads
+     */
+    public PartitionIndex(List<Expense> expenses) {
+        expenses.sort(Comparator.comparingLong(Expense::getSequence));
+        this.expenses = expenses;
+        this.byDate = new TreeMap<>();
+        this.byCategory = new EnumMap<>(Category.class);
+        this.totals = new MonthlyTotals();
+        Map<LocalDate, int[]> filled = new HashMap<>();
+        int[] ofCategory = new int[Category.values().length];
+        for (Expense e : expenses) {
+            filled.computeIfAbsent(e.getDate(), date -> new int[1])[0]++;
+            ofCategory[e.getCategory().ordinal()]++;
+            totals.add(e);
+        }
+        makeRoom(filled, ofCategory);
+        for (int position = 0; position < expenses.size(); position++) {
+            Expense e = expenses.get(position);
+            byDate.get(e.getDate())[filled.get(e.getDate())[0]++] = position;
+            byCategory.get(e.getCategory())[ofCategory[e.getCategory().ordinal()]++] = position;
+        }
+    }
+
+    /*
+     * MODIFIES: this, filled, ofCategory
+     * EFFECTS:  makes room in byDate for the number of expenses of each date in filled, and in byCategory for the
+     *           number of expenses of each category in ofCategory, by ordinal, then sets every number to 0
+     */
+    private void makeRoom(Map<LocalDate, int[]> filled, int[] ofCategory) {
+        filled.forEach((date, count) -> {
+            byDate.put(date, new int[count[0]]);
+            count[0] = 0;
+        });
+        for (Category c : Category.values()) {
+            if (ofCategory[c.ordinal()] > 0) {
+                byCategory.put(c, new int[ofCategory[c.ordinal()]]);
+                ofCategory[c.ordinal()] = 0;
+            }
+        }
+    }
+
+    public List<Expense> getExpenses() {
+        return expenses;
+    }
+
+    public TreeMap<LocalDate, int[]> getByDate() {
+        return byDate;
+    }
+
+    public EnumMap<Category, int[]> getByCategory() {
+        return byCategory;
+    }
+
+    public MonthlyTotals getTotals() {
+        return totals;
+    }
+}
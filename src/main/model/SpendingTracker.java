@@ -3,45 +3,123 @@ package model;
 import model.exceptions.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 import persistence.Saveable;
 
-import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-// Represents a spending tracker with a list of expenses added by the user
+// Represents a spending tracker with a list of expenses added by the user; it can be read and modified from several
+// threads at once. The details of the expenses are kept in columns of primitives, one row per expense, and the
+// expenses it hands out and the ones added to it are views of their rows, so a change made through the tracker shows
+// through every view of the expense changed
 public class SpendingTracker implements Saveable {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
-    // the date formatter that displays weekday, month, day of month, and 4-digit year respectively
+    public static final int PARALLEL_THRESHOLD = 50000;
+    // the number of candidate expenses from which queries are split across the common fork-join pool
 
-    private List<Expense> expenses; // the list of expenses in the tracker
+    private ExpenseColumns columns;                 // the details of every expense ever added, one row each, by id
+    private ExpenseList expenses;                   // the rows of the expenses in the tracker, in the order added
+    private TreeMap<LocalDate, ExpenseList> expensesByDate;     // the rows of the expenses in the tracker, by date
+    private EnumMap<Category, ExpenseList> expensesByCategory;  // the rows of the expenses in the tracker, by category
+    private long nextSequence;                      // the sequence number given to the next expense added
+    private MonthlyTotals monthlyTotals;            // the total spent in each category in each month
+    private StampedLock lock;                       // guards all of the above
+    private List<LedgerListener> listeners;         // told about every change, while the write lock is held
+    private ExpenseSource source;                   // where the months not loaded yet are kept, if any
+    private TreeSet<YearMonth> unloaded;            // the months of source not loaded yet
+    private volatile boolean loadedAll;             // true if every month of source has been loaded
+    private Map<YearMonth, Long> modifications;     // the number of changes made to each month that has changed
 
     /*
      * EFFECTS: constructs a spending tracker with an empty list of expenses
      */
     public SpendingTracker() {
-        expenses = new ArrayList<>();
+        columns = new ExpenseColumns();
+        expenses = new ExpenseList(columns);
+        expensesByDate = new TreeMap<>();
+        expensesByCategory = new EnumMap<>(Category.class);
+        monthlyTotals = new MonthlyTotals();
+        lock = new StampedLock();
+        listeners = new CopyOnWriteArrayList<>();
+        unloaded = new TreeSet<>();
+        loadedAll = true;
+        modifications = new HashMap<>();
     }
 
     /*
-     * REQUIRES: price > 0
+     * EFFECTS: constructs a spending tracker with the expenses of source, none of which are loaded yet; each month
+     *          of source is loaded the first time a query reaches it, and every month is loaded once a query or a
+     *          change needs the whole tracker
+     */
+    public SpendingTracker(ExpenseSource source) {
+        this();
+        this.source = source;
+        unloaded.addAll(source.months());
+        nextSequence = source.nextSequence();
+        loadedAll = unloaded.isEmpty();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds listener to the listeners told about every change made to the tracker from now on
+     */
+    public void addListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  stops telling listener about the changes made to the tracker
+     */
+    public void removeListener(LedgerListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+     * REQUIRES: price > 0 AND price is finite
      *           AND description.length() != 0
      *           AND vendor.length() != 0
      *           AND date != null
      *           AND category != null
      * MODIFIES: this
-     * EFFECTS:  if price <= 0, throws ZeroOrLessException
+     * EFFECTS:  if price is not a number or is infinite, throws NotFiniteException
+     *           if price <= 0, throws ZeroOrLessException
      *           if description.length() == 0 OR vendor.length() == 0, throws ZeroLengthException
      *           if date == null OR category == null, throws NullPointerException
      *           otherwise, adds an expense to expenses with price, description, vendor, date, and category
      */
     public void addExpense(double price, String description, String vendor, LocalDate date, Category category) throws
             ZeroOrLessException, ZeroLengthException, NullPointerException {
-        if (price <= 0) {
-            throw new ZeroOrLessException();
-        }
+        checkPrice(price);
         if (description.length() == 0) {
             throw new DescriptionZeroLengthException();
         }
@@ -55,29 +133,62 @@ public class SpendingTracker implements Saveable {
             throw new CategoryNullException();
         }
         Expense expense = new Expense(price, description, vendor, date, category);
-        expenses.add(expense);
-        EventLog.getInstance().logEvent(new Event("Expense '" + description + "' from " + vendor
-                + " purchased " + "for $" + String.format("%.2f", price) + " on "
-                + date.format(FORMATTER).replaceAll("\\.", "") + " with category '" + category.name
-                + "' added to spending tracker"));
+        write(() -> insertExpense(expense));
+        EventLog.getInstance().logEvent(new Event(EventType.EXPENSE_ADDED, description, vendor, price, date, category));
     }
 
     /*
-     * REQUIRES: e.getPrice() > 0
+     * REQUIRES: e.getPrice() > 0 AND e.getPrice() is finite
      *           AND e.getDescription().length() != 0
      *           AND e.getVendor().length() != 0
      *           AND e.getDate() != null
      *           AND e.getCategory() != null
      * MODIFIES: this
-     * EFFECTS:  if e.getPrice() <= 0, throws ZeroOrLessException
+     * EFFECTS:  if e.getPrice() is not a number or is infinite, throws NotFiniteException
+     *           if e.getPrice() <= 0, throws ZeroOrLessException
      *           if e.getDescription().length() == 0 OR e.getVendor().length() == 0, throws ZeroLengthException
      *           if e.getDate() == null OR e.getCategory() == null, throws NullPointerException
-     *           otherwise, adds e to expenses
+     *           if an expense with the id of e, or e itself, is already in the tracker, throws ExpenseExistsException
+     *           otherwise, adds e to expenses, making e a view of its row
      */
-    public void addExpense(Expense e) throws ZeroOrLessException, ZeroLengthException, NullPointerException {
-        if (e.getPrice() <= 0) {
-            throw new ZeroOrLessException();
+    public void addExpense(Expense e) throws ZeroOrLessException, ZeroLengthException, NullPointerException,
+            ExpenseExistsException {
+        validate(e);
+        loadIfAbsent(e.getId());
+        write(() -> {
+            checkAbsent(e.getExpenseID());
+            insertExpense(e);
+        });
+        EventLog.getInstance().logEvent(new Event(EventType.EXPENSE_ADDED, e.getDescription(), e.getVendor(),
+                e.getPrice(), e.getDate(), e.getCategory()));
+    }
+
+    /*
+     * REQUIRES: every expense e in batch satisfies the requirements of addExpense(e)
+     * MODIFIES: this
+     * EFFECTS:  if an expense in batch does not satisfy them, throws the exception addExpense would throw for it
+     *           and adds none of the expenses in batch
+     *           if two expenses in batch share an id, throws ExpenseExistsException and adds none of them
+     *           otherwise, adds every expense in batch to expenses, in order, making each a view of its row, and
+     *           logs a single event for them
+     */
+    public void addExpenses(Collection<Expense> batch) throws ZeroOrLessException, ZeroLengthException,
+            NullPointerException, ExpenseExistsException {
+        for (Expense e : batch) {
+            validate(e);
+            loadIfAbsent(e.getId());
         }
+        addValidExpenses(batch);
+    }
+
+    /*
+     * EFFECTS: if e.getPrice() is not a number or is infinite, throws NotFiniteException
+     *          if e.getPrice() <= 0, throws ZeroOrLessException
+     *          if e.getDescription().length() == 0 OR e.getVendor().length() == 0, throws ZeroLengthException
+     *          if e.getDate() == null OR e.getCategory() == null, throws NullPointerException
+     */
+    public static void validate(Expense e) throws ZeroOrLessException, ZeroLengthException, NullPointerException {
+        checkPrice(e.getPrice());
         if (e.getDescription().length() == 0) {
             throw new DescriptionZeroLengthException();
         }
@@ -90,11 +201,51 @@ public class SpendingTracker implements Saveable {
         if (e.getCategory() == null) {
             throw new CategoryNullException();
         }
-        expenses.add(e);
-        EventLog.getInstance().logEvent(new Event("Expense '" + e.getDescription() + "' from " + e.getVendor()
-                + " purchased for $" + String.format("%.2f", e.getPrice()) + " on "
-                + e.getDate().format(FORMATTER).replaceAll("\\.", "") + " with category '"
-                + e.getCategory().name + "' added to spending tracker"));
+    }
+
+    /*
+     * EFFECTS: if price is not a number or is infinite, throws NotFiniteException
+     *          if price <= 0, throws ZeroOrLessException
+     */
+    private static void checkPrice(double price) throws ZeroOrLessException {
+        if (Double.isNaN(price) || Double.isInfinite(price)) {
+            throw new NotFiniteException();
+        }
+        if (price <= 0) {
+            throw new ZeroOrLessException();
+        }
+    }
+
+    /*
+     * REQUIRES: every expense in batch has been validated
+     * MODIFIES: this
+     * EFFECTS:  if an expense in batch has the id of another one in batch or in the tracker, throws
+     *           ExpenseExistsException and adds none of them
+     *           otherwise, adds every expense in batch to expenses, in order, and logs a single event summarizing them
+     */
+    private void addValidExpenses(Collection<Expense> batch) throws ExpenseExistsException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        write(() -> {
+            Set<ExpenseID> ids = new HashSet<>();
+            for (Expense e : batch) {
+                checkAbsent(e.getExpenseID());
+                if (!ids.add(e.getExpenseID())) {
+                    throw new ExpenseExistsException(e.getId());
+                }
+            }
+            insertExpenses(batch);
+        });
+        double total = 0;
+        LocalDate first = LocalDate.MAX;
+        LocalDate last = LocalDate.MIN;
+        for (Expense e : batch) {
+            total += e.getPrice();
+            first = e.getDate().isBefore(first) ? e.getDate() : first;
+            last = e.getDate().isAfter(last) ? e.getDate() : last;
+        }
+        EventLog.getInstance().logEvent(new Event(EventType.EXPENSES_ADDED, batch.size(), total, first, last));
     }
 
     /*
@@ -104,56 +255,354 @@ public class SpendingTracker implements Saveable {
      *           otherwise, removes that expense from expenses
      */
     public void deleteExpense(String id) throws ExpenseDoesNotExistException {
-        Expense expenseToDelete = containsExpense(id);
-        if (expenseToDelete == null) {
-            throw new ExpenseDoesNotExistException();
+        loadIfAbsent(id);
+        Expense expenseToDelete;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            expenseToDelete = columns.view(row);
+            removeExpense(row);
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        expenses.remove(expenseToDelete);
-        EventLog.getInstance().logEvent(new Event("Expense '" + expenseToDelete.getDescription() + "' from "
-                + expenseToDelete.getVendor() + " purchased for $" + String.format("%.2f", expenseToDelete.getPrice())
-                + " on " + expenseToDelete.getDate().format(FORMATTER).replaceAll("\\.", "")
-                + " with category '" + expenseToDelete.getCategory().name + "' deleted from spending tracker"));
+        EventLog.getInstance().logEvent(new Event(EventType.EXPENSE_DELETED, expenseToDelete.getDescription(),
+                expenseToDelete.getVendor(), expenseToDelete.getPrice(), expenseToDelete.getDate(),
+                expenseToDelete.getCategory()));
     }
 
     /*
-     * EFFECTS: if an expense with id exists in items, returns the Expense with that id
+     * EFFECTS: if an expense with id exists in expenses, returns the Expense with that id
      *          otherwise, returns null
      */
     private Expense containsExpense(String id) {
-        for (Expense e : expenses) {
-            if (e.getId().equals(id)) {
-                return e;
+        int row = columns.rowOf(new ExpenseID(id));
+        return row < 0 ? null : columns.view(row);
+    }
+
+    /*
+     * EFFECTS: if an expense with id exists in expenses, returns the Expense with that id
+     *          otherwise, returns null
+     */
+    public Expense getExpense(String id) {
+        loadIfAbsent(id);
+        return read(() -> containsExpense(id));
+    }
+
+    /*
+     * EFFECTS: if an expense with id does not exist in expenses, throws ExpenseDoesNotExistException
+     *          otherwise, returns the row of the Expense with that id
+     */
+    private int existingRow(String id) throws ExpenseDoesNotExistException {
+        int row = columns.rowOf(new ExpenseID(id));
+        if (row < 0) {
+            throw new ExpenseDoesNotExistException();
+        }
+        return row;
+    }
+
+    /*
+     * EFFECTS: if an expense with id is in the tracker, throws ExpenseExistsException; checked before an expense is
+     *          given a row, so that one already held never gets a second row or sequence number
+     */
+    private void checkAbsent(ExpenseID id) throws ExpenseExistsException {
+        if (columns.rowOf(id) >= 0) {
+            throw new ExpenseExistsException(id.getId());
+        }
+    }
+
+    /*
+     * REQUIRES: no expense with the id of e is in the tracker
+     * MODIFIES: this, e
+     * EFFECTS:  copies e into a new row of the columns with the next sequence number and makes e a view of it,
+     *           appends the row to expenses, adds it to the id, date and category indexes and to the monthly totals,
+     *           and tells the listeners; every path that adds an expense to the tracker must go through here or
+     *           insertExpenses, holding the write lock; the monthly totals are added to first, so that if they
+     *           reject e the tracker is left as it was
+     */
+    private void insertExpense(Expense e) {
+        monthlyTotals.add(e);
+        int row = addRow(e);
+        expenses.add(row);
+        indexByDate(row);
+        indexByCategory(row);
+        notifySaved(row);
+    }
+
+    /*
+     * REQUIRES: no two expenses in batch, or one in batch and one in the tracker, have the same id
+     * MODIFIES: this, batch
+     * EFFECTS:  does what insertExpense does for every expense in batch, but adds to the monthly totals once for the
+     *           whole batch and appends its rows to expenses in one go
+     */
+    private void insertExpenses(Collection<Expense> batch) {
+        monthlyTotals.addAll(batch);
+        int first = columns.size();
+        for (Expense e : batch) {
+            int row = addRow(e);
+            indexByDate(row);
+            indexByCategory(row);
+        }
+        expenses.append(first, batch.size());
+        for (int row = first; row < first + batch.size(); row++) {
+            notifySaved(row);
+        }
+    }
+
+    /*
+     * REQUIRES: no expense with the id of e is in the tracker
+     * MODIFIES: this, e
+     * EFFECTS:  copies e into a new row of the columns with the next sequence number, indexes the row by id, makes e
+     *           a view of it and returns it
+     */
+    private int addRow(Expense e) {
+        int row = columns.add(e, nextSequence++);
+        columns.index(row);
+        e.bind(columns, row);
+        return row;
+    }
+
+    /*
+     * REQUIRES: the expense in row is in expenses
+     * MODIFIES: this
+     * EFFECTS:  removes row from expenses, from the id, date and category indexes and from the monthly totals, and
+     *           tells the listeners; the row itself is kept, so views of the expense keep its last details; every
+     *           path that removes an expense from the tracker must go through here, holding the write lock
+     */
+    private void removeExpense(int row) {
+        Expense e = columns.view(row);
+        expenses.remove(row);
+        columns.unindex(row);
+        unindexByDate(row);
+        unindexByCategory(row);
+        monthlyTotals.remove(e);
+        for (LedgerListener listener : listeners) {
+            listener.expenseDeleted(e);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  counts a change to the month of the expense in row and tells every listener that it has been added
+     *           or changed
+     */
+    private void notifySaved(int row) {
+        touch(columns.dateOf(row));
+        Expense e = columns.view(row);
+        for (LedgerListener listener : listeners) {
+            listener.expenseSaved(e);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  counts a change to the month of date
+     */
+    private void touch(LocalDate date) {
+        modifications.merge(YearMonth.from(date), 1L, Long::sum);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds row to the date index under the current date of its expense
+     */
+    private void indexByDate(int row) {
+        expensesByDate.computeIfAbsent(columns.dateOf(row), date -> new ExpenseList(columns)).add(row);
+    }
+
+    /*
+     * REQUIRES: row is in the date index under the current date of its expense
+     * MODIFIES: this
+     * EFFECTS:  removes row from the date index and counts a change to the month it was in
+     */
+    private void unindexByDate(int row) {
+        LocalDate date = columns.dateOf(row);
+        touch(date);
+        ExpenseList sameDay = expensesByDate.get(date);
+        sameDay.remove(row);
+        if (sameDay.isEmpty()) {
+            expensesByDate.remove(date);
+        }
+    }
+
+    /*
+     * REQUIRES: the expense in row is in expenses
+     * MODIFIES: this
+     * EFFECTS:  sets the date of the expense in row to date, moving it in the date index and the monthly totals
+     */
+    private void moveToDate(int row, LocalDate date) {
+        Expense e = columns.view(row);
+        unindexByDate(row);
+        monthlyTotals.remove(e);
+        columns.setDate(row, date);
+        indexByDate(row);
+        monthlyTotals.add(e);
+    }
+
+    /*
+     * REQUIRES: the expense in row is in expenses
+     * MODIFIES: this
+     * EFFECTS:  sets the category of the expense in row to category, moving it in the category index and the monthly
+     *           totals
+     */
+    private void moveToCategory(int row, Category category) {
+        Expense e = columns.view(row);
+        unindexByCategory(row);
+        monthlyTotals.remove(e);
+        columns.setCategory(row, category);
+        indexByCategory(row);
+        monthlyTotals.add(e);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds row to the category index under the current category of its expense
+     */
+    private void indexByCategory(int row) {
+        expensesByCategory.computeIfAbsent(columns.categoryOf(row), category -> new ExpenseList(columns)).add(row);
+    }
+
+    /*
+     * REQUIRES: row is in the category index under the current category of its expense
+     * MODIFIES: this
+     * EFFECTS:  removes row from the category index
+     */
+    private void unindexByCategory(int row) {
+        Category category = columns.categoryOf(row);
+        ExpenseList ofCategory = expensesByCategory.get(category);
+        ofCategory.remove(row);
+        if (ofCategory.isEmpty()) {
+            expensesByCategory.remove(category);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  loads every month from first to last, inclusive, that has not been loaded yet; if one of them cannot
+     *           be read, throws UncheckedIOException and loads none of them
+     */
+    private void loadMonths(YearMonth first, YearMonth last) {
+        if (loadedAll) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            NavigableSet<YearMonth> months = unloaded.subSet(first, true, last, true);
+            if (!months.isEmpty()) {
+                insertLoaded(source.loadAll(months).values());
+                months.clear();
             }
+            loadedAll = unloaded.isEmpty();
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return null;
     }
 
     /*
-     * REQUIRES: newPrice > 0
+     * MODIFIES: this
+     * EFFECTS:  loads every month that has not been loaded yet
+     */
+    private void loadAll() {
+        loadMonths(YearMonth.of(Year.MIN_VALUE, 1), YearMonth.of(Year.MAX_VALUE, 12));
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  loads every month that has not been loaded yet if no expense with id has been loaded, since it may
+     *           be in any of them
+     */
+    private void loadIfAbsent(String id) {
+        if (!loadedAll && read(() -> containsExpense(id)) == null) {
+            loadAll();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  loads the months that the date range of compiled reaches, or every month if it has none
+     */
+    private void loadFor(CompiledFilter compiled) {
+        if (compiled.hasDateRange()) {
+            loadMonths(YearMonth.from(compiled.getStartDate()), YearMonth.from(compiled.getEndDate()));
+        } else {
+            loadAll();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  adds the expenses of each month loaded from source to the columns, to expenses, to the id, date and
+     *           category indexes and to the monthly totals, keeping the sequence numbers they were saved with so that
+     *           every list stays in the order the expenses were added; each month is indexed on its own first, in
+     *           parallel if there are at least PARALLEL_THRESHOLD expenses, and the indexes are then merged in date
+     *           order; the listeners are not told, since nothing has changed
+     */
+    private void insertLoaded(Collection<List<Expense>> months) {
+        Stream<List<Expense>> partitions = sizeOf(months) >= PARALLEL_THRESHOLD
+                ? months.parallelStream() : months.stream();
+        List<PartitionIndex> indexes = partitions.map(PartitionIndex::new).collect(Collectors.toList());
+        Set<Category> merged = EnumSet.noneOf(Category.class);
+        for (PartitionIndex index : indexes) {
+            int first = addLoaded(index.getExpenses());
+            expenses.append(first, index.getExpenses().size());
+            index.getByDate().forEach((date, sameDay) ->
+                    expensesByDate.computeIfAbsent(date, d -> new ExpenseList(columns)).addAll(sameDay, first));
+            index.getByCategory().forEach((category, ofCategory) ->
+                    expensesByCategory.computeIfAbsent(category, c -> new ExpenseList(columns)).append(ofCategory,
+                            first));
+            merged.addAll(index.getByCategory().keySet());
+            monthlyTotals.addAll(index.getTotals());
+        }
+        // each list is now made of runs already in order, which the sort merges without comparing within a run
+        expenses.sortBySequence();
+        merged.forEach(category -> expensesByCategory.get(category).sortBySequence());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  copies the expenses loaded from source into new rows of the columns in order, with the sequence
+     *           numbers they were saved with, indexes each by id unless one with its id is already indexed, and
+     *           returns the first of the rows
+     */
+    private int addLoaded(List<Expense> loaded) {
+        int first = columns.size();
+        for (Expense e : loaded) {
+            columns.index(columns.add(e, e.getSequence()));
+        }
+        return first;
+    }
+
+    /*
+     * REQUIRES: newPrice > 0 AND newPrice is finite
      *           containsExpense(id) != null
      * MODIFIES: this
-     * EFFECTS:  if newPrice <= 0, throws ZeroOrLessException
+     * EFFECTS:  if newPrice is not a number or is infinite, throws NotFiniteException
+     *           if newPrice <= 0, throws ZeroOrLessException
      *           if an expense with id does not exist in expenses, throws ExpenseDoesNotExistException
      *           otherwise,
      *              - if newPrice is different from the price of the expense, sets the price of that expense to newPrice
      *              - otherwise, does nothing
      */
     public void editPriceOf(String id, double newPrice) throws ZeroOrLessException, ExpenseDoesNotExistException {
-        if (newPrice <= 0) {
-            throw new ZeroOrLessException();
-        }
-        Expense expenseToEdit = containsExpense(id);
-        if (expenseToEdit == null) {
-            throw new ExpenseDoesNotExistException();
-        }
-        if (expenseToEdit.getPrice() != newPrice) {
+        checkPrice(newPrice);
+        loadIfAbsent(id);
+        Event event;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            Expense expenseToEdit = columns.view(row);
+            if (expenseToEdit.getPrice() == newPrice) {
+                return;
+            }
+            monthlyTotals.remove(expenseToEdit);
             expenseToEdit.setPrice(newPrice);
-            EventLog.getInstance().logEvent(new Event("Price of expense '" + expenseToEdit.getDescription()
-                    + "' from " + expenseToEdit.getVendor() + " purchased on "
-                    + expenseToEdit.getDate().format(FORMATTER).replaceAll("\\.", "")
-                    + " with category '" + expenseToEdit.getCategory().name + "' in spending tracker set to $"
-                    + String.format("%.2f", newPrice)));
+            monthlyTotals.add(expenseToEdit);
+            notifySaved(row);
+            event = new Event(EventType.EXPENSE_PRICE_SET, expenseToEdit.getDescription(), expenseToEdit.getVendor(),
+                    expenseToEdit.getDate(), expenseToEdit.getCategory(), newPrice);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        EventLog.getInstance().logEvent(event);
     }
 
     /*
@@ -172,18 +621,23 @@ public class SpendingTracker implements Saveable {
         if (newDescription.length() == 0) {
             throw new DescriptionZeroLengthException();
         }
-        Expense expenseToEdit = containsExpense(id);
-        if (expenseToEdit == null) {
-            throw new ExpenseDoesNotExistException();
-        }
-        if (!expenseToEdit.getDescription().equals(newDescription)) {
+        loadIfAbsent(id);
+        Event event;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            Expense expenseToEdit = columns.view(row);
+            if (expenseToEdit.getDescription().equals(newDescription)) {
+                return;
+            }
             expenseToEdit.setDescription(newDescription);
-            EventLog.getInstance().logEvent(new Event("Description of expense purchased for $"
-                    + String.format("%.2f", expenseToEdit.getPrice()) + " from " + expenseToEdit.getVendor()
-                    + " on " + expenseToEdit.getDate().format(FORMATTER).replaceAll("\\.", "")
-                    + " with category '" + expenseToEdit.getCategory().name + "' in spending tracker set to '"
-                    + newDescription + "'"));
+            notifySaved(row);
+            event = new Event(EventType.EXPENSE_DESCRIPTION_SET, expenseToEdit.getPrice(), expenseToEdit.getVendor(),
+                    expenseToEdit.getDate(), expenseToEdit.getCategory(), newDescription);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        EventLog.getInstance().logEvent(event);
     }
 
     /*
@@ -201,18 +655,23 @@ public class SpendingTracker implements Saveable {
         if (newVendor.length() == 0) {
             throw new VendorZeroLengthException();
         }
-        Expense expenseToEdit = containsExpense(id);
-        if (expenseToEdit == null) {
-            throw new ExpenseDoesNotExistException();
-        }
-        if (!expenseToEdit.getVendor().equals(newVendor)) {
+        loadIfAbsent(id);
+        Event event;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            Expense expenseToEdit = columns.view(row);
+            if (expenseToEdit.getVendor().equals(newVendor)) {
+                return;
+            }
             expenseToEdit.setVendor(newVendor);
-            EventLog.getInstance().logEvent(new Event("Vendor of expense '" + expenseToEdit.getDescription()
-                    + "' purchased for $" + String.format("%.2f", expenseToEdit.getPrice()) + " on "
-                    + expenseToEdit.getDate().format(FORMATTER).replaceAll("\\.", "")
-                    + " with category '" + expenseToEdit.getCategory().name + "' in spending tracker set to "
-                    + newVendor));
+            notifySaved(row);
+            event = new Event(EventType.EXPENSE_VENDOR_SET, expenseToEdit.getDescription(), expenseToEdit.getPrice(),
+                    expenseToEdit.getDate(), expenseToEdit.getCategory(), newVendor);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        EventLog.getInstance().logEvent(event);
     }
 
     /*
@@ -229,18 +688,23 @@ public class SpendingTracker implements Saveable {
         if (newDate == null) {
             throw new DateNullException();
         }
-        Expense expenseToEdit = containsExpense(id);
-        if (expenseToEdit == null) {
-            throw new ExpenseDoesNotExistException();
-        }
-        if (!expenseToEdit.getDate().toString().equals(newDate.toString())) {
-            expenseToEdit.setDate(newDate);
-            EventLog.getInstance().logEvent(new Event("Purchase date of expense '"
-                    + expenseToEdit.getDescription() + "' purchased for $"
-                    + String.format("%.2f", expenseToEdit.getPrice()) + " from " + expenseToEdit.getVendor()
-                    + " with category '" + expenseToEdit.getCategory().name + "' in spending tracker set to "
-                    + newDate.format(FORMATTER).replaceAll("\\.", "")));
+        loadIfAbsent(id);
+        Event event;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            Expense expenseToEdit = columns.view(row);
+            if (expenseToEdit.getDate().toString().equals(newDate.toString())) {
+                return;
+            }
+            moveToDate(row, newDate);
+            notifySaved(row);
+            event = new Event(EventType.EXPENSE_DATE_SET, expenseToEdit.getDescription(), expenseToEdit.getPrice(),
+                    expenseToEdit.getVendor(), expenseToEdit.getCategory(), newDate);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        EventLog.getInstance().logEvent(event);
     }
 
     /*
@@ -259,50 +723,412 @@ public class SpendingTracker implements Saveable {
         if (newCategory == null) {
             throw new CategoryNullException();
         }
-        Expense expenseToEdit = containsExpense(id);
+        loadIfAbsent(id);
+        Event event;
+        long stamp = lock.writeLock();
+        try {
+            int row = existingRow(id);
+            Expense expenseToEdit = columns.view(row);
+            if (expenseToEdit.getCategory() == newCategory) {
+                return;
+            }
+            moveToCategory(row, newCategory);
+            notifySaved(row);
+            event = new Event(EventType.EXPENSE_CATEGORY_SET, expenseToEdit.getDescription(), expenseToEdit.getPrice(),
+                    expenseToEdit.getVendor(), expenseToEdit.getDate(), newCategory);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        EventLog.getInstance().logEvent(event);
+    }
 
-        if (expenseToEdit == null) {
-            throw new ExpenseDoesNotExistException();
+    /*
+     * MODIFIES: this
+     * EFFECTS:  runs writer while holding the write lock
+     */
+    private void write(Runnable writer) {
+        long stamp = lock.writeLock();
+        try {
+            writer.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the result of reader, run while holding the read lock
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        if (expenseToEdit.getCategory() != newCategory) {
-            expenseToEdit.setCategory(newCategory);
-            EventLog.getInstance().logEvent(new Event("Category of expense '" + expenseToEdit.getDescription()
-                    + "' purchased for $" + String.format("%.2f", expenseToEdit.getPrice()) + " from "
-                    + expenseToEdit.getVendor() + " on "
-                    + expenseToEdit.getDate().format(FORMATTER).replaceAll("\\.", "")
-                    + "' in spending tracker set to '" + newCategory.name + "'"));
+    }
+
+    /*
+     * EFFECTS: returns the result of reader, run without taking the lock if no write happens meanwhile;
+     *          otherwise, runs reader again while holding the read lock and returns that result;
+     *          reader must only walk structures that stay finite while being modified, since it may see them
+     *          half-way through a write and anything it throws then is discarded
+     */
+    private <T> T readOptimistically(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // a write happened meanwhile; read again under the lock below
+            }
         }
+        return read(reader);
     }
 
     /*
-     * EFFECTS: returns expenses with each expense filter in filters applied
+     * EFFECTS: returns the result of reader, a query answered using compiled; the query is read optimistically
+     *          unless it has a date range, since a walk through the date index during a write may never end
+     */
+    private <T> T readFor(CompiledFilter compiled, Supplier<T> reader) {
+        return compiled.hasDateRange() ? read(reader) : readOptimistically(reader);
+    }
+
+    /*
+     * EFFECTS: returns expenses with each expense filter in filters applied, in the order they were added;
+     *          the filters are compiled into one filter, and if they include a date range or a set of categories
+     *          only the expenses in the smaller of the two are visited
      */
     public List<Expense> filter(List<ExpenseFilter> filters) {
-        List<Expense> filteredExpenses = new ArrayList<>();
-        for (Expense e : expenses) {
-            if (acceptAll(filters, e)) {
-                filteredExpenses.add(e);
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return new ArrayList<>();
+        }
+        loadFor(compiled);
+        return readFor(compiled, () -> listOfMatches(plan(compiled)));
+    }
+
+    /*
+     * EFFECTS: returns a lazy stream of the expenses satisfying every filter in filters, in the order they were
+     *          added; the date or category index planned for the filters is read a batch at a time as the stream
+     *          is consumed, so no list of the matches is ever built. The tracker may change while the stream is
+     *          consumed: expenses added since this call are left out, ones deleted before the batch holding them
+     *          is read are skipped, and no expense is returned twice. The stream is parallel if the plan has at
+     *          least PARALLEL_THRESHOLD candidates
+     */
+    public Stream<Expense> query(List<ExpenseFilter> filters) {
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return Stream.empty();
+        }
+        loadFor(compiled);
+        QuerySpliterator matches = read(() -> new QuerySpliterator(plan(compiled), -1, nextSequence - 1));
+        return StreamSupport.stream(matches, isParallel(matches.compiled));
+    }
+
+    /*
+     * EFFECTS: returns the sum of the prices of the expenses satisfying every filter in filters
+     */
+    public double sum(List<ExpenseFilter> filters) {
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return 0;
+        }
+        loadFor(compiled);
+        return readFor(compiled, () -> sumOfMatches(plan(compiled)));
+    }
+
+    /*
+     * EFFECTS: returns the number of expenses satisfying every filter in filters
+     */
+    public int count(List<ExpenseFilter> filters) {
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return 0;
+        }
+        loadFor(compiled);
+        return readFor(compiled, () -> countOfMatches(plan(compiled)));
+    }
+
+    /*
+     * EFFECTS: returns true if at least one expense satisfies every filter in filters
+     *          otherwise returns false
+     */
+    public boolean any(List<ExpenseFilter> filters) {
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return false;
+        }
+        loadFor(compiled);
+        return readFor(compiled, () -> anyMatches(plan(compiled)));
+    }
+
+    /*
+     * EFFECTS: returns the sum of the prices of the expenses satisfying every filter in filters, by category;
+     *          categories without such expenses are left out
+     */
+    public Map<Category, Double> totalsByCategory(List<ExpenseFilter> filters) {
+        CompiledFilter compiled = CompiledFilter.compile(filters);
+        if (compiled.matchesNothing()) {
+            return new EnumMap<>(Category.class);
+        }
+        loadFor(compiled);
+        return readFor(compiled, () -> totalsOfMatches(plan(compiled)));
+    }
+
+    /*
+     * REQUIRES: compiled has been planned AND !compiled.matchesNothing()
+     * EFFECTS:  returns the expenses satisfying compiled, in the order they were added
+     */
+    private List<Expense> listOfMatches(CompiledFilter compiled) {
+        IntStream matched = matches(compiled);
+        if (compiled.getSource() != CompiledFilter.Source.ALL) {
+            matched = matched.boxed().sorted(Comparator.comparingLong(columns::sequenceOf)).mapToInt(row -> row);
+        }
+        return matched.mapToObj(columns::view).collect(Collectors.toList());
+    }
+
+    /*
+     * REQUIRES: compiled has been planned AND !compiled.matchesNothing()
+     * EFFECTS:  returns the sum of the prices of the expenses satisfying compiled
+     */
+    private double sumOfMatches(CompiledFilter compiled) {
+        if (isParallel(compiled)) {
+            return matches(compiled).mapToDouble(columns::priceOf).sum();
+        }
+        double sum = 0;
+        for (ExpenseList candidates : candidatesOf(compiled)) {
+            for (PrimitiveIterator.OfInt rows = candidates.rows(); rows.hasNext(); ) {
+                int row = rows.nextInt();
+                if (compiled.accept(columns, row)) {
+                    sum += columns.priceOf(row);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /*
+     * REQUIRES: compiled has been planned AND !compiled.matchesNothing()
+     * EFFECTS:  returns the number of expenses satisfying compiled
+     */
+    private int countOfMatches(CompiledFilter compiled) {
+        if (isParallel(compiled)) {
+            return (int) matches(compiled).count();
+        }
+        int count = 0;
+        for (ExpenseList candidates : candidatesOf(compiled)) {
+            for (PrimitiveIterator.OfInt rows = candidates.rows(); rows.hasNext(); ) {
+                if (compiled.accept(columns, rows.nextInt())) {
+                    count++;
+                }
             }
         }
-        return filteredExpenses;
+        return count;
     }
 
     /*
-     * REQUIRES: e is in expenses
-     * EFFECTS:  if e satisfies all expense filters in filters, returns true
+     * REQUIRES: compiled has been planned AND !compiled.matchesNothing()
+     * EFFECTS:  returns true if at least one expense satisfies compiled
      *           otherwise returns false
      */
-    private boolean acceptAll(List<ExpenseFilter> filters, Expense e) {
-        for (ExpenseFilter f : filters) {
-            if (!f.accept(e)) {
-                return false;
+    private boolean anyMatches(CompiledFilter compiled) {
+        if (isParallel(compiled)) {
+            return matches(compiled).anyMatch(row -> true);
+        }
+        for (ExpenseList candidates : candidatesOf(compiled)) {
+            for (PrimitiveIterator.OfInt rows = candidates.rows(); rows.hasNext(); ) {
+                if (compiled.accept(columns, rows.nextInt())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * REQUIRES: compiled has been planned AND !compiled.matchesNothing()
+     * EFFECTS:  returns the sum of the prices of the expenses satisfying compiled, by category
+     */
+    private Map<Category, Double> totalsOfMatches(CompiledFilter compiled) {
+        if (isParallel(compiled)) {
+            return matches(compiled).boxed().collect(Collectors.groupingBy(columns::categoryOf,
+                    () -> new EnumMap<>(Category.class), Collectors.summingDouble(columns::priceOf)));
+        }
+        double[] sums = new double[Category.values().length];
+        boolean[] seen = new boolean[sums.length];
+        for (ExpenseList candidates : candidatesOf(compiled)) {
+            for (PrimitiveIterator.OfInt rows = candidates.rows(); rows.hasNext(); ) {
+                int row = rows.nextInt();
+                if (compiled.accept(columns, row)) {
+                    sums[columns.categoryOrdinalOf(row)] += columns.priceOf(row);
+                    seen[columns.categoryOrdinalOf(row)] = true;
+                }
+            }
+        }
+        Map<Category, Double> totals = new EnumMap<>(Category.class);
+        for (Category c : Category.values()) {
+            if (seen[c.ordinal()]) {
+                totals.put(c, sums[c.ordinal()]);
+            }
+        }
+        return totals;
+    }
+
+    /*
+     * REQUIRES: !compiled.matchesNothing()
+     * EFFECTS:  returns a stream of the rows of the expenses satisfying compiled, in no particular order if taken
+     *           from an index; the stream is parallel if compiled has at least PARALLEL_THRESHOLD candidates
+     */
+    private IntStream matches(CompiledFilter compiled) {
+        IntStream candidates;
+        if (compiled.getSource() == CompiledFilter.Source.ALL) {
+            candidates = expenses.rowStream();
+        } else if (isParallel(compiled)) {
+            // the buckets are copied into one array first so that the work splits evenly however few buckets there are
+            candidates = Arrays.stream(candidatesOf(compiled).stream().flatMapToInt(ExpenseList::rowStream).toArray());
+        } else {
+            candidates = candidatesOf(compiled).stream().flatMapToInt(ExpenseList::rowStream);
+        }
+        if (isParallel(compiled)) {
+            candidates = candidates.parallel();
+        }
+        return candidates.filter(row -> compiled.accept(columns, row));
+    }
+
+    /*
+     * EFFECTS: returns true if compiled has enough candidates to be worth splitting across threads
+     */
+    private boolean isParallel(CompiledFilter compiled) {
+        return compiled.getCandidateCount() >= PARALLEL_THRESHOLD;
+    }
+
+    /*
+     * REQUIRES: !compiled.matchesNothing()
+     * EFFECTS:  returns compiled planned using the sizes of the date and category indexes
+     */
+    private CompiledFilter plan(CompiledFilter compiled) {
+        int inDateRange = compiled.hasDateRange() ? sizeOf(dateBuckets(compiled)) : expenses.size();
+        int inCategories = compiled.hasCategories() ? sizeOf(categoryBuckets(compiled)) : expenses.size();
+        return compiled.plan(expenses.size(), inDateRange, inCategories);
+    }
+
+    /*
+     * REQUIRES: !compiled.matchesNothing()
+     * EFFECTS:  returns the buckets holding every expense that may satisfy compiled, taken from the source
+     *           planned for it
+     */
+    private Collection<ExpenseList> candidatesOf(CompiledFilter compiled) {
+        switch (compiled.getSource()) {
+            case DATE_INDEX:
+                return dateBuckets(compiled);
+            case CATEGORY_INDEX:
+                return categoryBuckets(compiled);
+            default:
+                return Collections.singletonList(expenses);
+        }
+    }
+
+    /*
+     * REQUIRES: compiled.hasDateRange() AND !compiled.matchesNothing()
+     * EFFECTS:  returns the buckets of the date index within the date range of compiled
+     */
+    private Collection<ExpenseList> dateBuckets(CompiledFilter compiled) {
+        return expensesByDate.subMap(compiled.getStartDate(), true, compiled.getEndDate(), true).values();
+    }
+
+    /*
+     * REQUIRES: compiled.hasCategories()
+     * EFFECTS:  returns the buckets of the category index for the categories of compiled
+     */
+    private Collection<ExpenseList> categoryBuckets(CompiledFilter compiled) {
+        List<ExpenseList> buckets = new ArrayList<>();
+        for (Category c : compiled.getCategories()) {
+            ExpenseList ofCategory = expensesByCategory.get(c);
+            if (ofCategory != null) {
+                buckets.add(ofCategory);
             }
         }
-        return true;
+        return buckets;
     }
 
+    /*
+     * EFFECTS: returns the total number of expenses in buckets
+     */
+    private static int sizeOf(Collection<? extends Collection<Expense>> buckets) {
+        int count = 0;
+        for (Collection<Expense> bucket : buckets) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /*
+     * EFFECTS: returns the sum of the prices of the expenses of category purchased in month
+     */
+    public double totalOf(YearMonth month, Category category) {
+        loadMonths(month, month);
+        return readOptimistically(() -> monthlyTotals.totalOf(month, category));
+    }
+
+    /*
+     * EFFECTS: returns the number of expenses of category purchased in month
+     */
+    public int countOf(YearMonth month, Category category) {
+        loadMonths(month, month);
+        return readOptimistically(() -> monthlyTotals.countOf(month, category));
+    }
+
+    /*
+     * EFFECTS: returns a read-only copy of the expenses in the tracker, in the order they were added
+     */
     public List<Expense> getExpenses() {
-        return expenses;
+        loadAll();
+        return readOptimistically(() -> Collections.unmodifiableList(new ArrayList<>(expenses)));
+    }
+
+    /*
+     * EFFECTS: returns a copy of each expense in expenses, in the order they were added, all taken at one moment
+     *          between changes; later changes to the spending tracker do not change the copies
+     */
+    public List<Expense> snapshot() {
+        loadAll();
+        return read(() -> {
+            List<Expense> copies = new ArrayList<>(expenses.size());
+            for (Expense e : expenses) {
+                copies.add(new Expense(e));
+            }
+            return copies;
+        });
+    }
+
+    /*
+     * EFFECTS: returns a copy of each expense of month, in the order they were added, all taken at one moment
+     *          between changes; the month is loaded first if it has not been
+     */
+    public List<Expense> snapshotOf(YearMonth month) {
+        loadMonths(month, month);
+        return read(() -> {
+            List<Expense> copies = new ArrayList<>();
+            for (ExpenseList sameDay : expensesByDate.subMap(month.atDay(1), true, month.atEndOfMonth(), true)
+                    .values()) {
+                for (Expense e : sameDay) {
+                    copies.add(new Expense(e));
+                }
+            }
+            copies.sort(Comparator.comparingLong(Expense::getSequence));
+            return copies;
+        });
+    }
+
+    /*
+     * EFFECTS: returns the number of changes made to each month since the tracker was constructed, leaving out
+     *          months that have not changed; a month has changed between two calls exactly when its count differs
+     */
+    public Map<YearMonth, Long> modificationCounts() {
+        return read(() -> new HashMap<>(modifications));
     }
 
     /*
@@ -310,15 +1136,31 @@ public class SpendingTracker implements Saveable {
      * EFFECTS:  returns the SpendingTracker represented by jsonObj
      */
     public static SpendingTracker fromJson(JSONObject jsonObj) {
+        return fromJson(jsonObj.getJSONArray("expenses"));
+    }
+
+    /*
+     * REQUIRES: every item in expenseItems is a JSONObject representing an expense
+     * EFFECTS:  returns the SpendingTracker with the expenses represented by expenseItems, skipping invalid ones
+     *           and ones with the id of an earlier one; the items are taken one at a time, so expenseItems may be
+     *           read lazily from a file
+     */
+    public static SpendingTracker fromJson(Iterable<?> expenseItems) {
         SpendingTracker spendingTracker = new SpendingTracker();
-        JSONArray expenseItems = jsonObj.getJSONArray("expenses");
+        List<Expense> batch = new ArrayList<>();
+        Set<ExpenseID> ids = new HashSet<>();
         for (Object obj : expenseItems) {
+            Expense e = Expense.fromJson((JSONObject) obj);
             try {
-                spendingTracker.addExpense(Expense.fromJson((JSONObject) obj));
-            } catch (ZeroOrLessException | ZeroLengthException e) {
+                validate(e);
+                if (ids.add(e.getExpenseID())) {
+                    batch.add(e);
+                }
+            } catch (ZeroOrLessException | ZeroLengthException ex) {
                 //
             }
         }
+        spendingTracker.addValidExpenses(batch);
         return spendingTracker;
     }
 
@@ -327,12 +1169,138 @@ public class SpendingTracker implements Saveable {
      */
     @Override
     public JSONObject saveToJson() {
+        loadAll();
         JSONObject obj = new JSONObject();
-        JSONArray expenseItems = new JSONArray();
-        for (Expense e : expenses) {
-            expenseItems.put(e.saveToJson());
-        }
+        JSONArray expenseItems = read(() -> {
+            JSONArray items = new JSONArray();
+            for (Expense e : expenses) {
+                items.put(e.saveToJson());
+            }
+            return items;
+        });
         obj.put("expenses", expenseItems);
         return obj;
     }
+
+    /*
+     * MODIFIES: writer
+     * EFFECTS:  writes the SpendingTracker to writer as a JSON object, one expense at a time; the read lock is held
+     *           throughout, so the expenses written are all from the same moment
+     */
+    @Override
+    public void writeJson(JSONWriter writer) {
+        loadAll();
+        writer.object().key("expenses").array();
+        long stamp = lock.readLock();
+        try {
+            for (Expense e : expenses) {
+                e.writeJson(writer);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        writer.endArray().endObject();
+    }
+
+    // Represents the expenses satisfying a planned filter whose sequence numbers are above after and at most upTo,
+    // read from the buckets planned for the filter a batch of candidates at a time while holding the read lock. Each
+    // batch finds its place again by sequence number, merging the buckets in that order, so the tracker may change
+    // between batches without an expense being returned twice or out of order
+    private class QuerySpliterator implements Spliterator<Expense> {
+
+        private static final int BATCH = 1024;      // the most candidates read while holding the read lock
+
+        private final CompiledFilter compiled;      // the filter, planned when the query was made
+        private final List<Expense> batch;          // the matches among the candidates read last
+        private long after;                         // the sequence number of the last candidate read, or less
+        private long upTo;                          // the greatest sequence number of an expense to return
+        private int next;                           // the index in batch of the next match to return
+
+        QuerySpliterator(CompiledFilter compiled, long after, long upTo) {
+            this.compiled = compiled;
+            this.batch = new ArrayList<>();
+            this.after = after;
+            this.upTo = upTo;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Expense> action) {
+            while (next == batch.size()) {
+                if (after >= upTo) {
+                    return false;
+                }
+                batch.clear();
+                next = 0;
+                after = read(() -> readBatch(candidatesOf(compiled)));
+            }
+            action.accept(batch.get(next++));
+            return true;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: returns the expenses with the lower half of the sequence numbers left to this, which keeps the
+         *          upper half, unless too few are left to be worth splitting or a batch is part way through
+         */
+        @Override
+        public Spliterator<Expense> trySplit() {
+            if (next < batch.size() || upTo - after < 2L * BATCH) {
+                return null;
+            }
+            long middle = after + (upTo - after) / 2;
+            QuerySpliterator lower = new QuerySpliterator(compiled, after, middle);
+            after = middle;
+            return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.min(upTo - after, compiled.getCandidateCount()) + batch.size() - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        /*
+         * REQUIRES: the calling thread holds the read lock
+         * MODIFIES: this
+         * EFFECTS: adds to batch the matches among the next BATCH candidates in buckets after after and up to upTo,
+         *          taken in order of sequence number, and returns the sequence number of the last one read, or
+         *          upTo if there are no more
+         */
+        private long readBatch(Collection<ExpenseList> buckets) {
+            PriorityQueue<Map.Entry<Integer, PrimitiveIterator.OfInt>> heads = new PriorityQueue<>(
+                    Math.max(1, buckets.size()), Comparator.comparingLong(head -> columns.sequenceOf(head.getKey())));
+            for (ExpenseList bucket : buckets) {
+                advance(heads, bucket.rowsAfter(after));
+            }
+            long last = after;
+            for (int read = 0; read < BATCH; read++) {
+                Map.Entry<Integer, PrimitiveIterator.OfInt> least = heads.poll();
+                if (least == null || columns.sequenceOf(least.getKey()) > upTo) {
+                    return upTo;
+                }
+                int row = least.getKey();
+                last = columns.sequenceOf(row);
+                if (compiled.accept(columns, row)) {
+                    batch.add(columns.view(row));
+                }
+                advance(heads, least.getValue());
+            }
+            return last;
+        }
+
+        /*
+         * MODIFIES: heads
+         * EFFECTS: adds the next row of rest to heads, along with rest, if rest has one
+         */
+        private void advance(PriorityQueue<Map.Entry<Integer, PrimitiveIterator.OfInt>> heads,
+                             PrimitiveIterator.OfInt rest) {
+            if (rest.hasNext()) {
+                heads.add(new AbstractMap.SimpleImmutableEntry<>(rest.nextInt(), rest));
+            }
+        }
+    }
 }
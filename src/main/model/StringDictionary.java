@@ -0,0 +1,87 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a dictionary that gives each distinct string a code, so that a column can hold an int in place of each
+// string; codes are handed out in order from 0 and never taken back, so a string no longer in use keeps its entry.
+// It is not safe to change from several threads at once, but a code handed out can be looked up meanwhile
+public class StringDictionary {
+
+    private static final int INITIAL_CAPACITY = 16;     // the number of codes room is first made for
+
+    private String[] values;    // the string of each code
+    private int size;           // the number of codes handed out
+    private int[] table;        // the code of each string plus one, at the slot its hash probes to; 0 marks no string
+
+    /*
+     * EFFECTS: constructs an empty dictionary
+     */
+    public StringDictionary() {
+        values = new String[INITIAL_CAPACITY];
+        table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /*
+     * REQUIRES: value != null
+     * MODIFIES: this
+     * EFFECTS:  returns the code of value, handing out the next code if value has none yet
+     */
+    public int codeOf(String value) {
+        int slot = slotOf(value, table);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            table = rehash(size * 4);
+            slot = slotOf(value, table);
+        }
+        values[size] = value;
+        table[slot] = ++size;
+        return size - 1;
+    }
+
+    /*
+     * REQUIRES: 0 <= code < size()
+     * EFFECTS:  returns the string with code
+     */
+    public String valueOf(int code) {
+        return values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /*
+     * EFFECTS: returns the slot of table holding the code of value, or the empty slot where it belongs
+     */
+    private int slotOf(String value, int[] table) {
+        int mask = table.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        while (table[slot] != 0 && !values[table[slot] - 1].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /*
+     * REQUIRES: capacity is a power of two greater than size()
+     * EFFECTS:  returns a table of capacity slots holding the code of every string
+     */
+    private int[] rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        for (int code = 0; code < size; code++) {
+            rehashed[slotOf(values[code], rehashed)] = code + 1;
+        }
+        return rehashed;
+    }
+
+    /*
+     * EFFECTS: returns hash with its high bits mixed into its low ones, which pick the slot
+     */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
@@ -0,0 +1,22 @@
+package model.exceptions;
+
+// An exception thrown when an expense with the id of one already in the spending tracker is being added
+public class ExpenseExistsException extends IllegalArgumentException {
+
+    private final String id;
+
+    /*
+     * EFFECTS: constructs a new ExpenseExistsException with the id that already exists in the spending tracker
+     */
+    public ExpenseExistsException(String id) {
+        this.id = id;
+    }
+
+    /*
+     * EFFECTS: returns the message displayed when this exception is caught
+     */
+    @Override
+    public String getMessage() {
+        return "An expense with the id \"" + id + "\" already exists!";
+    }
+}
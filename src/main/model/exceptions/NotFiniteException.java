@@ -0,0 +1,13 @@
+package model.exceptions;
+
+// An exception thrown when a double field for an expense is not a number or is infinite
+public class NotFiniteException extends ZeroOrLessException {
+
+    /*
+     * EFFECTS: returns the message displayed when this exception is caught
+     */
+    @Override
+    public String getMessage() {
+        return "Invalid: amount is not a finite number!";
+    }
+}
@@ -0,0 +1,127 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Represents a service that saves snapshots of a document to a file on a background thread. Saves asked for in quick
+// succession are coalesced into one, made a debounce interval after the first of them; each snapshot is written to a
+// temporary file, forced to disk and renamed over the file, so the file always holds one whole snapshot
+public class AutoSaver implements Closeable {
+
+    public static final long DEBOUNCE_MILLIS = 2000;    // how long a save waits for more saves to coalesce with
+
+    private final String filename;                          // the file saved to, in the data directory
+    private final Supplier<SnapshotWriter> snapshot;        // takes a snapshot and returns what writes it out
+    private final Runnable saved;                           // run each time a snapshot is safely on disk
+    private final long debounceMillis;                      // how long a save waits for more saves to coalesce with
+    private final ScheduledExecutorService saver;           // the thread that takes and writes the snapshots
+    private ScheduledFuture<?> pending;                     // the save asked for that has not started yet, if any
+
+    /*
+     * REQUIRES: debounceMillis >= 0
+     * EFFECTS: constructs a service that saves what snapshot returns to filename, waiting debounceMillis for more
+     *          saves to coalesce with, and runs saved after each save; snapshot is called on the background thread,
+     *          so it must be safe to call while the document is being changed, and returns what writes the snapshot
+     *          to a file
+     */
+    public AutoSaver(String filename, Supplier<SnapshotWriter> snapshot, Runnable saved, long debounceMillis) {
+        this.filename = filename;
+        this.snapshot = snapshot;
+        this.saved = saved;
+        this.debounceMillis = debounceMillis;
+        this.saver = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "autosaver of " + filename);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: asks for a save to be made once the debounce interval has passed, unless one has already been asked
+     *          for and not started; returns the save
+     */
+    public synchronized Future<?> request() {
+        return schedule(debounceMillis);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: asks for a save to be made as soon as the one being made, if any, is done; returns the save
+     */
+    public synchronized Future<?> saveNow() {
+        return schedule(0);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: waits for the save being made, if any, and one asked for by saveNow, if any, to finish; a save asked
+     *          for by request that is still waiting for others to coalesce with is not made, and neither is any other
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (pending != null && pending.getDelay(TimeUnit.MILLISECONDS) > 0) {
+                pending.cancel(false);
+            }
+            saver.shutdown();
+        }
+        try {
+            saver.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + filename + " to be saved");
+        }
+    }
+
+    /*
+     * REQUIRES: the calling thread holds the lock of this
+     * MODIFIES: this
+     * EFFECTS: returns the save that has been asked for if it starts within delay milliseconds, otherwise asks for
+     *          one to start in delay milliseconds instead
+     */
+    private Future<?> schedule(long delay) {
+        if (pending != null && pending.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+            return pending;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = saver.schedule(() -> {
+            save();
+            return null;
+        }, delay, TimeUnit.MILLISECONDS);
+        return pending;
+    }
+
+    /*
+     * MODIFIES: filename
+     * EFFECTS: takes a snapshot, writes it to a temporary file and renames that over filename; saves asked for from
+     *          now on are made after; if the save fails, filename is left as it was and the temporary file is deleted
+     */
+    private void save() throws IOException {
+        synchronized (this) {
+            pending = null;
+        }
+        Path temp = Paths.get("./data/" + filename + ".tmp");
+        try {
+            snapshot.get().writeTo(temp);
+            PersistenceManager.replace(temp, filename);
+            saved.run();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package persistence;
+
+import model.Budget;
+import model.BudgetItem;
+import model.Category;
+import model.Expense;
+import model.ExpenseID;
+import model.SpendingTracker;
+import model.exceptions.ExpenseExistsException;
+import model.exceptions.ZeroLengthException;
+import model.exceptions.ZeroOrLessException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents the binary snapshot format of a saved EasyBudget application, a compact alternative to the JSON format
+// for large spending trackers. After a magic header and a version byte, a snapshot holds the budget, a dictionary of
+// every distinct description and vendor, and then each expense as a flags byte, its price as a varint count of cents
+// (or as its raw double if it is not a whole number of cents), its date as a varint epoch-day, its category ordinal,
+// the dictionary indexes of its description and vendor, and its id as 128 bits (or as a string if it is not a UUID).
+// Every value round-trips exactly with the JSON format. Snapshots are read by mapping the file into memory and
+// decoding each value from the mapping where it lies. A partition of a partitioned ledger is written the same way,
+// under its own magic header and without a budget, with the sequence number of each expense before it.
+public class BinarySnapshot {
+
+    static final byte[] MAGIC = {'E', 'Z', 'B', 'S'};   // the first bytes of every binary snapshot
+    static final byte[] PARTITION_MAGIC = {'E', 'Z', 'B', 'P'};     // the first bytes of every partition
+    static final int VERSION = 1;                       // the version of the format written by this class
+
+    private static final int CENTS = 1;         // flag set if the price is stored as a whole number of cents
+    private static final int UUID_BITS = 2;     // flag set if the id is stored as the 128 bits of a UUID
+    private static final Category[] CATEGORIES = Category.values();     // the categories, indexed by ordinal
+
+    /*
+     * EFFECTS: returns true if file starts with the magic header of a binary snapshot, false otherwise
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            byte[] header = new byte[MAGIC.length];
+            in.readFully(header);
+            return Arrays.equals(header, MAGIC);
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /*
+     * MODIFIES: file
+     * EFFECTS: writes budget and expenses to file as a binary snapshot, in the order of expenses
+     */
+    public static void write(Path file, Budget budget, List<Expense> expenses) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            writeBudget(out, budget);
+            writeExpenses(out, expenses, false);
+        }
+    }
+
+    /*
+     * REQUIRES: expenses are in increasing order of sequence number
+     * MODIFIES: file
+     * EFFECTS: writes expenses to file as a partition, each with its sequence number
+     */
+    public static void writePartition(Path file, List<Expense> expenses) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                1 << 16))) {
+            out.write(PARTITION_MAGIC);
+            out.writeByte(VERSION);
+            writeExpenses(out, expenses, true);
+        }
+    }
+
+    /*
+     * EFFECTS: if file is not a binary snapshot this class can read, throws IOException
+     *          otherwise, returns the budget in file; throws ZeroOrLessException if its limit is not positive
+     */
+    public static Budget readBudget(Path file) throws IOException, ZeroOrLessException {
+        try (MappedInput in = open(file, MappedInput.WINDOW, MAGIC)) {
+            return Budget.fromJson(readBudgetJson(in));
+        }
+    }
+
+    /*
+     * EFFECTS: if file is not a well-formed binary snapshot this class can read, throws IOException
+     *          otherwise, returns the spending tracker in file, with its expenses in the order they were written;
+     *          the file is mapped into memory and decoded in place, so its bytes are never copied into a buffer
+     */
+    public static SpendingTracker readSpendingTracker(Path file) throws IOException {
+        return readSpendingTracker(file, MappedInput.WINDOW);
+    }
+
+    /*
+     * REQUIRES: window > 0
+     * EFFECTS: same as readSpendingTracker(file), mapping at most window bytes of the file at a time unless a
+     *          single value is longer
+     */
+    static SpendingTracker readSpendingTracker(Path file, long window) throws IOException {
+        try (MappedInput in = open(file, window, MAGIC)) {
+            readBudgetJson(in);
+            SpendingTracker spendingTracker = new SpendingTracker();
+            spendingTracker.addExpenses(readExpenses(in, false));
+            return spendingTracker;
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseExistsException e) {
+            // readExpense has already checked every expense is valid, but not that their ids are distinct
+            throw new IOException("Binary snapshot " + file + " holds an invalid expense", e);
+        }
+    }
+
+    /*
+     * EFFECTS: if file is not a well-formed partition this class can read, throws IOException
+     *          otherwise, returns the expenses in file, each with the sequence number it was written with
+     */
+    public static List<Expense> readPartition(Path file) throws IOException {
+        try (MappedInput in = open(file, MappedInput.WINDOW, PARTITION_MAGIC)) {
+            return readExpenses(in, true);
+        }
+    }
+
+    /*
+     * EFFECTS: maps file into memory window bytes at a time and reads past its header, throwing IOException if it
+     *          does not start with magic or is of a version this class cannot read
+     */
+    private static MappedInput open(Path file, long window, byte[] magic) throws IOException {
+        MappedInput in = new MappedInput(file, window);
+        try {
+            byte[] header = new byte[magic.length];
+            in.readFully(header);
+            if (!Arrays.equals(header, magic)) {
+                throw new IOException(file + " is not a binary snapshot");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException(file + " is a binary snapshot of unknown version " + version);
+            }
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /*
+     * MODIFIES: out
+     * EFFECTS: writes the limit of budget and the category name and limit of each of its items; a budget is tiny,
+     *          so its categories are written by name to keep its validation in Budget.fromJson
+     */
+    private static void writeBudget(DataOutput out, Budget budget) throws IOException {
+        out.writeDouble(budget.getTotalLimit());
+        writeVarLong(out, budget.getItems().size());
+        for (BudgetItem item : budget) {
+            writeString(out, item.getCategory().name);
+            out.writeDouble(item.getLimit());
+        }
+    }
+
+    /*
+     * EFFECTS: reads a budget written by writeBudget, as the JSON object the JSON format would hold for it; throws
+     *          IOException if a limit is not a finite number, or an item has a limit that is not positive or a category
+     *          with a name writeBudget could not have written
+     */
+    private static JSONObject readBudgetJson(MappedInput in) throws IOException {
+        JSONObject budget = new JSONObject();
+        budget.put("limit", readLimit(in));
+        JSONArray items = new JSONArray();
+        int size = count(in);
+        for (int i = 0; i < size; i++) {
+            JSONObject item = new JSONObject();
+            String category = readString(in);
+            if (Category.stringToCategory(category) == null) {
+                throw new IOException("corrupt snapshot: unknown category " + category);
+            }
+            double limit = readLimit(in);
+            if (limit <= 0) {
+                throw new IOException("corrupt snapshot: limit " + limit + " of " + category);
+            }
+            item.put("category", category);
+            item.put("limit", limit);
+            items.put(item);
+        }
+        budget.put("items", items);
+        return budget;
+    }
+
+    /*
+     * EFFECTS: reads a limit written by writeBudget, throwing IOException if it is not a finite number
+     */
+    private static double readLimit(MappedInput in) throws IOException {
+        double limit = in.readDouble();
+        if (Double.isNaN(limit) || Double.isInfinite(limit)) {
+            throw new IOException("corrupt snapshot: limit " + limit);
+        }
+        return limit;
+    }
+
+    /*
+     * REQUIRES: if sequenced, expenses are in increasing order of sequence number
+     * MODIFIES: out
+     * EFFECTS: writes a dictionary of the descriptions and vendors of expenses, followed by each expense; if
+     *          sequenced, each expense is preceded by how much its sequence number exceeds that of the one before
+     */
+    private static void writeExpenses(DataOutput out, List<Expense> expenses, boolean sequenced) throws IOException {
+        Map<String, Integer> dictionary = dictionaryOf(expenses);
+        writeVarLong(out, dictionary.size());
+        for (String s : dictionary.keySet()) {
+            writeString(out, s);
+        }
+        writeVarLong(out, expenses.size());
+        long sequence = 0;
+        for (Expense e : expenses) {
+            if (sequenced) {
+                writeVarLong(out, e.getSequence() - sequence);
+                sequence = e.getSequence();
+            }
+            writeExpense(out, e, dictionary);
+        }
+    }
+
+    /*
+     * EFFECTS: reads expenses written by writeExpenses with the same sequenced
+     */
+    private static List<Expense> readExpenses(MappedInput in, boolean sequenced) throws IOException {
+        String[] dictionary = new String[count(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        int size = count(in);
+        List<Expense> expenses = new ArrayList<>(size);
+        long sequence = 0;
+        for (int i = 0; i < size; i++) {
+            sequence += sequenced ? readVarLong(in) : 0;
+            Expense e = readExpense(in, dictionary);
+            e.setSequence(sequence);
+            expenses.add(e);
+        }
+        return expenses;
+    }
+
+    /*
+     * EFFECTS: returns the index of each distinct description and vendor of expenses, in the order they are first
+     *          reached
+     */
+    private static Map<String, Integer> dictionaryOf(List<Expense> expenses) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Expense e : expenses) {
+            dictionary.putIfAbsent(e.getDescription(), dictionary.size());
+            dictionary.putIfAbsent(e.getVendor(), dictionary.size());
+        }
+        return dictionary;
+    }
+
+    /*
+     * MODIFIES: out
+     * EFFECTS: writes e, with its description and vendor as their indexes in dictionary
+     */
+    private static void writeExpense(DataOutput out, Expense e, Map<String, Integer> dictionary) throws IOException {
+        long cents = Math.round(e.getPrice() * 100);
+        boolean inCents = cents / 100.0 == e.getPrice();
+        ExpenseID id = e.getExpenseID();
+        out.writeByte((inCents ? CENTS : 0) | (id.isUuid() ? UUID_BITS : 0));
+        if (inCents) {
+            writeVarLong(out, zigZag(cents));
+        } else {
+            out.writeDouble(e.getPrice());
+        }
+        writeVarLong(out, zigZag(e.getDate().toEpochDay()));
+        out.writeByte(e.getCategory().ordinal());
+        writeVarLong(out, dictionary.get(e.getDescription()));
+        writeVarLong(out, dictionary.get(e.getVendor()));
+        if (id.isUuid()) {
+            out.writeLong(id.getMostSigBits());
+            out.writeLong(id.getLeastSigBits());
+        } else {
+            writeString(out, id.getId());
+        }
+    }
+
+    /*
+     * EFFECTS: reads an expense written by writeExpense, looking its description and vendor up in dictionary;
+     *          throws IOException if it has a date out of range, refers to a category or dictionary entry that
+     *          does not exist, or is not an expense the spending tracker would accept
+     */
+    private static Expense readExpense(MappedInput in, String[] dictionary) throws IOException {
+        int flags = in.readUnsignedByte();
+        double price = (flags & CENTS) != 0 ? unZigZag(readVarLong(in)) / 100.0 : in.readDouble();
+        LocalDate date;
+        Category category;
+        try {
+            date = LocalDate.ofEpochDay(unZigZag(readVarLong(in)));
+            category = CATEGORIES[in.readUnsignedByte()];
+        } catch (DateTimeException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("corrupt snapshot: " + e.getMessage(), e);
+        }
+        String description = dictionary[index(readVarLong(in), dictionary.length)];
+        String vendor = dictionary[index(readVarLong(in), dictionary.length)];
+        ExpenseID id = (flags & UUID_BITS) != 0
+                ? new ExpenseID(in.readLong(), in.readLong())
+                : new ExpenseID(readString(in));
+        if (!(price > 0) || Double.isInfinite(price) || description.isEmpty() || vendor.isEmpty()) {
+            throw new IOException("Invalid expense " + id.getId() + " in binary snapshot");
+        }
+        return new Expense(price, description, vendor, date, category, id);
+    }
+
+    /*
+     * MODIFIES: out
+     * EFFECTS: writes the length of s in UTF-8 as a varint, followed by its UTF-8 bytes
+     */
+    private static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /*
+     * EFFECTS: reads a string written by writeString
+     */
+    private static String readString(MappedInput in) throws IOException {
+        byte[] bytes = new byte[count(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * MODIFIES: out
+     * EFFECTS: writes value as an unsigned varint, seven bits a byte from the lowest, with the high bit of each byte
+     *          but the last set
+     */
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /*
+     * EFFECTS: reads a varint written by writeVarLong, throwing IOException if it is longer than ten bytes
+     */
+    private static long readVarLong(MappedInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary snapshot");
+    }
+
+    /*
+     * EFFECTS: reads a varint count of bytes, or of values at least a byte long each, throwing IOException if the
+     *          file has fewer bytes left than that, as a corrupt one might; so nothing is ever allocated for more
+     *          values than the file could hold
+     */
+    private static int count(MappedInput in) throws IOException {
+        long count = readVarLong(in);
+        long remaining = in.remaining();
+        if (count < 0 || count > remaining) {
+            throw new IOException("Count " + count + " in binary snapshot exceeds the " + remaining
+                    + " bytes left");
+        }
+        return index(count, Integer.MAX_VALUE);
+    }
+
+    /*
+     * EFFECTS: returns value if 0 <= value < bound, otherwise throws IOException
+     */
+    private static int index(long value, int bound) throws IOException {
+        if (value < 0 || value >= bound) {
+            throw new IOException("Out of range value " + value + " in binary snapshot");
+        }
+        return (int) value;
+    }
+
+    /*
+     * EFFECTS: maps signed n to an unsigned value that is small when n is close to zero
+     */
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /*
+     * EFFECTS: returns the signed value that zigZag maps to n
+     */
+    private static long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    // Represents the bytes of a binary snapshot, decoded straight from windows of the file mapped into memory one
+    // after another; the operating system pages each window in as it is reached
+    private static class MappedInput implements Closeable {
+
+        static final long WINDOW = 1L << 30;    // the most bytes mapped at a time, below the 2GB a mapping can hold
+
+        private final FileChannel channel;      // the file being read
+        private final long size;                // the size of the file in bytes
+        private final long window;              // the most bytes mapped at a time, unless one value is longer
+        private long windowStart;               // the position in the file of the first byte of mapped
+        private MappedByteBuffer mapped;        // the part of the file being read
+
+        /*
+         * EFFECTS: opens file and maps the first window of it into memory
+         */
+        MappedInput(Path file, long window) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.window = window;
+            map(0, 0);
+        }
+
+        int readUnsignedByte() throws IOException {
+            return ensure(1).get() & 0xFF;
+        }
+
+        long readLong() throws IOException {
+            return ensure(8).getLong();
+        }
+
+        double readDouble() throws IOException {
+            return ensure(8).getDouble();
+        }
+
+        void readFully(byte[] bytes) throws IOException {
+            ensure(bytes.length).get(bytes);
+        }
+
+        /*
+         * EFFECTS: returns the number of bytes of the file left to read
+         */
+        long remaining() {
+            return size - windowStart - mapped.position();
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: returns the mapped bytes, with at least n of them left to read from their position, mapping the
+         *          next window of the file if fewer are left; throws EOFException if the file has fewer left
+         */
+        private ByteBuffer ensure(int n) throws IOException {
+            if (mapped.remaining() < n) {
+                map(windowStart + mapped.position(), n);
+            }
+            return mapped;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: maps a window of the file starting at start and holding at least atLeast bytes, throwing
+         *          EOFException if the file ends first
+         */
+        private void map(long start, int atLeast) throws IOException {
+            long length = Math.min(size - start, Math.max(window, atLeast));
+            if (length < atLeast) {
+                throw new EOFException("Binary snapshot ends in the middle of a value");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            windowStart = start;
+        }
+
+        /*
+         * EFFECTS: closes the file; the window mapped last stays readable until it is garbage collected
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package persistence;
+
+import model.Category;
+import model.Expense;
+import model.ExpenseID;
+import model.SpendingTracker;
+import model.exceptions.ZeroLengthException;
+import model.exceptions.ZeroOrLessException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents an importer of bank statements in CSV form into a spending tracker, built as a pipeline of stages joined
+// by bounded queues: one thread reads the file a chunk of records at a time, noting the byte offset of each record,
+// several threads parse and validate chunks in parallel, and the calling thread adds the valid expenses of each chunk
+// to the tracker as one batch, in the order of the file. A full queue holds back the stage feeding it, so only a few
+// chunks are in memory at a time however long the file is. A row that is not a valid expense is rejected and reported
+// without stopping the import. The first row names the columns: date, description, vendor, price (or amount) and,
+// optionally, category; dates are in ISO form, and expenses without a known category are filed under Others.
+// Each committed chunk is recorded in an ImportCheckpoint under ./data, so an import cut short resumes after the
+// last chunk the tracker still holds. Every expense gets an id derived from the absolute path of the file, the byte
+// offset of its row and the row itself, and one already in the tracker is skipped, so a chunk committed again on
+// resuming, or a file imported twice, adds nothing twice, while a statement of the same name from another directory
+// is imported in full
+public class CsvImporter {
+
+    public static final int CHUNK_ROWS = 8192;  // the number of rows read, parsed and added together
+    public static final int QUEUE_CHUNKS = 4;   // the number of chunks each queue between two stages can hold
+
+    private static final Chunk END = new Chunk(-1);  // follows the last chunk through each queue
+
+    private final SpendingTracker tracker;      // the tracker expenses are imported into
+    private final int parsers;                  // the number of threads parsing chunks
+    private final int chunkRows;                // the number of rows in each chunk
+
+    /*
+     * EFFECTS: constructs an importer into tracker that parses on one thread per core
+     */
+    public CsvImporter(SpendingTracker tracker) {
+        this(tracker, Runtime.getRuntime().availableProcessors(), CHUNK_ROWS);
+    }
+
+    /*
+     * REQUIRES: parsers > 0 AND chunkRows > 0
+     * EFFECTS: constructs an importer into tracker that parses on parsers threads, chunkRows rows at a time
+     */
+    CsvImporter(SpendingTracker tracker, int parsers, int chunkRows) {
+        this.tracker = tracker;
+        this.parsers = parsers;
+        this.chunkRows = chunkRows;
+    }
+
+    /*
+     * MODIFIES: tracker
+     * EFFECTS: adds the expense in each valid row of file that tracker does not hold yet to tracker, in the order
+     *          of the file, and returns the report of the import; resumes after the last chunk checkpointed by an
+     *          import of file that was cut short, if tracker holds every expense up to it; throws IOException if file
+     *          cannot be read or its first row does not name the columns needed, in which case the chunks before
+     *          the failure stay imported and checkpointed
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        try (RecordReader reader = newReader(file)) {
+            Columns columns = Columns.of(reader.next(), file.toAbsolutePath().normalize().toString());
+            try (ImportCheckpoint checkpoint = ImportCheckpoint.open(file, tracker)) {
+                ImportReport report = new ImportReport();
+                if (checkpoint.getOffset() > 0) {
+                    reader.seek(checkpoint.getOffset(), checkpoint.getRow());
+                    report.setResumedAfterRow(checkpoint.getRow());
+                }
+                runStages(file, reader, columns, report, checkpoint);
+                checkpoint.finish();
+                return report;
+            }
+        }
+    }
+
+    /*
+     * EFFECTS: returns a reader of the rows of file
+     */
+    RecordReader newReader(Path file) throws IOException {
+        return new RecordReader(file);
+    }
+
+    /*
+     * MODIFIES: tracker, report, checkpoint
+     * EFFECTS: runs the reading and parsing stages of the import of file on threads of their own, and commits the
+     *          chunks they produce on the calling thread; once the stages have ended, throws the exception any of
+     *          them failed with, the chunks committed before it staying imported
+     */
+    private void runStages(Path file, RecordReader reader, Columns columns, ImportReport report,
+                           ImportCheckpoint checkpoint) throws IOException {
+        BlockingQueue<Chunk> read = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        ExecutorService stages = Executors.newFixedThreadPool(parsers + 1, task -> {
+            Thread thread = new Thread(task, "csv importer of " + file.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            running.add(stages.submit(() -> readChunks(reader, read)));
+            for (int i = 0; i < parsers; i++) {
+                running.add(stages.submit(() -> parseChunks(columns, read, parsed)));
+            }
+            commitChunks(parsed, report, checkpoint);
+            for (Future<?> stage : running) {
+                await(stage);
+            }
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+
+    /*
+     * MODIFIES: read
+     * EFFECTS: reads the rows of reader into chunks of chunkRows, numbered from 0, and puts each chunk on read,
+     *          waiting while it is full; puts END on read after the last chunk, or once reading fails in any way,
+     *          so that the parsers and the committer always come to an end
+     */
+    private Void readChunks(RecordReader reader, BlockingQueue<Chunk> read) throws IOException,
+            InterruptedException {
+        boolean ended = false;
+        try {
+            for (Chunk chunk = nextChunk(reader, 0); chunk != null; chunk = nextChunk(reader, chunk.index + 1)) {
+                read.put(chunk);
+            }
+            read.put(END);
+            ended = true;
+        } finally {
+            if (!ended && !read.offer(END)) {
+                // the parsers may have been abandoned too, so the chunks they have not taken are dropped to make
+                // room; those taken come before them, so the chunks committed are still the first ones of the file
+                read.clear();
+                read.offer(END);
+            }
+        }
+        return null;
+    }
+
+    /*
+     * MODIFIES: reader
+     * EFFECTS: reads the next chunkRows rows of reader, or as many as are left, into the chunk numbered index; returns
+     *          null if no row is left
+     */
+    private Chunk nextChunk(RecordReader reader, long index) throws IOException {
+        Chunk chunk = new Chunk(index);
+        for (String record = reader.next(); record != null; record = reader.next()) {
+            chunk.add(record, reader.getRow(), reader.getRecordOffset());
+            if (chunk.records.size() == chunkRows) {
+                break;
+            }
+        }
+        if (chunk.records.isEmpty()) {
+            return null;
+        }
+        chunk.end(reader.getOffset(), reader.getRow());
+        return chunk;
+    }
+
+    /*
+     * MODIFIES: read, parsed
+     * EFFECTS: takes chunks from read until it takes END, parses each one using columns and puts it on parsed,
+     *          waiting while it is full; puts END back on read for the other parsers, and puts END on parsed last,
+     *          even if parsing fails
+     */
+    private Void parseChunks(Columns columns, BlockingQueue<Chunk> read, BlockingQueue<Chunk> parsed)
+            throws InterruptedException {
+        try {
+            for (Chunk chunk = read.take(); chunk != END; chunk = read.take()) {
+                chunk.parse(columns);
+                parsed.put(chunk);
+            }
+            read.put(END);
+        } finally {
+            parsed.put(END);
+        }
+        return null;
+    }
+
+    /*
+     * MODIFIES: parsed, tracker, report, checkpoint
+     * EFFECTS: takes the chunks from parsed until every parser has put END on it, and commits each one in the order
+     *          the chunks were read, holding back those that arrive early
+     */
+    private void commitChunks(BlockingQueue<Chunk> parsed, ImportReport report, ImportCheckpoint checkpoint)
+            throws IOException {
+        Map<Long, Chunk> early = new HashMap<>();
+        long next = 0;
+        try {
+            for (int ended = 0; ended < parsers; ) {
+                Chunk chunk = parsed.take();
+                if (chunk == END) {
+                    ended++;
+                    continue;
+                }
+                early.put(chunk.index, chunk);
+                for (Chunk ready = early.remove(next); ready != null; ready = early.remove(++next)) {
+                    commit(ready, report, checkpoint);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing");
+        }
+    }
+
+    /*
+     * MODIFIES: tracker, report, checkpoint
+     * EFFECTS: adds the valid expenses of chunk that tracker does not hold yet to tracker as one batch, then
+     *          checkpoints the chunk and records it in report
+     */
+    private void commit(Chunk chunk, ImportReport report, ImportCheckpoint checkpoint) throws IOException {
+        List<Expense> fresh = new ArrayList<>();
+        for (Expense e : chunk.expenses) {
+            if (tracker.getExpense(e.getId()) == null) {
+                fresh.add(e);
+            }
+        }
+        try {
+            tracker.addExpenses(fresh);
+        } catch (ZeroOrLessException | ZeroLengthException e) {
+            throw new IllegalStateException("A validated expense was rejected", e);
+        }
+        checkpoint.commit(chunk.end, chunk.endRow, chunk.expenses.isEmpty() ? null
+                : chunk.expenses.get(chunk.expenses.size() - 1).getId());
+        report.addImported(fresh.size());
+        report.addSkipped(chunk.expenses.size() - fresh.size());
+        report.addRejections(chunk.rejections);
+    }
+
+    /*
+     * EFFECTS: waits for stage to finish, throwing the IOException, RuntimeException or Error it failed with, if any
+     */
+    private static void await(Future<?> stage) throws IOException {
+        try {
+            stage.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing");
+        }
+    }
+
+    /*
+     * EFFECTS: returns the fields of record, split at each comma outside double quotes; the quotes around a field
+     *          are removed, and a doubled quote inside one stands for a single quote
+     */
+    static List<String> fieldsOf(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == '"' && quoted && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                field.append(c);
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Represents which field of a row holds each detail of an expense, as named by the first row of the file
+    private static class Columns {
+
+        private final String source;        // the absolute path of the file, from which each expense id is derived
+        private final int count;            // the number of fields in every row
+        private final int date;             // the index of each detail among the fields, or -1 if it is not given
+        private final int description;
+        private final int vendor;
+        private final int price;
+        private final int category;
+
+        private Columns(List<String> names, String source) {
+            this.source = source;
+            count = names.size();
+            date = names.indexOf("date");
+            description = names.indexOf("description");
+            vendor = names.indexOf("vendor");
+            price = names.indexOf("price") >= 0 ? names.indexOf("price") : names.indexOf("amount");
+            category = names.indexOf("category");
+        }
+
+        /*
+         * EFFECTS: returns the columns named by header of the file at source, throwing IOException if it does not
+         *          name a date, description, vendor and price or amount column; names are matched regardless of case
+         *          and surrounding spaces
+         */
+        static Columns of(String header, String source) throws IOException {
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : fieldsOf(header.replace("\uFEFF", ""))) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            Columns columns = new Columns(names, source);
+            if (Math.min(Math.min(columns.date, columns.description), Math.min(columns.vendor, columns.price)) < 0) {
+                throw new IOException("The first row must name the date, description, vendor and price columns, "
+                        + "but it is: " + header);
+            }
+            return columns;
+        }
+    }
+
+    // Represents a run of consecutive rows of the file, which goes through each stage of the pipeline as one
+    private static class Chunk {
+
+        private final long index;                   // the position of the chunk in the file, counting from 0
+        private final List<String> records;         // the rows, as they are in the file
+        private final List<Long> rows;              // the number of each row, counting the header as row 1
+        private final List<Long> offsets;           // the byte offset in the file of each row
+        private long end;                           // the byte offset in the file just past the last row
+        private long endRow;                        // the number of the last row, blank rows included
+        private final List<Expense> expenses;       // the valid expenses of the rows, once parsed
+        private final List<ImportReport.Rejection> rejections;  // the rows that are not valid expenses, once parsed
+
+        Chunk(long index) {
+            this.index = index;
+            this.records = new ArrayList<>();
+            this.rows = new ArrayList<>();
+            this.offsets = new ArrayList<>();
+            this.expenses = new ArrayList<>();
+            this.rejections = new ArrayList<>();
+        }
+
+        void add(String record, long row, long offset) {
+            records.add(record);
+            rows.add(row);
+            offsets.add(offset);
+        }
+
+        void end(long end, long endRow) {
+            this.end = end;
+            this.endRow = endRow;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: parses each row into an expense and validates it as addExpense would, rejecting it if either fails
+         */
+        void parse(Columns columns) {
+            for (int i = 0; i < records.size(); i++) {
+                try {
+                    Expense e = parseExpense(columns, fieldsOf(records.get(i)), idOf(columns.source, i));
+                    SpendingTracker.validate(e);
+                    expenses.add(e);
+                } catch (ZeroOrLessException | ZeroLengthException | RuntimeException e) {
+                    rejections.add(new ImportReport.Rejection(rows.get(i), records.get(i), e.getMessage()));
+                }
+            }
+        }
+
+        /*
+         * EFFECTS: returns the id of the expense in row i of the file at the absolute path source, which is the same
+         *          every time the row is imported from the same place in that file, but differs between two files of
+         *          the same name in different directories
+         */
+        private ExpenseID idOf(String source, int i) {
+            UUID uuid = UUID.nameUUIDFromBytes((source + ':' + offsets.get(i) + ':' + records.get(i))
+                    .getBytes(StandardCharsets.UTF_8));
+            return new ExpenseID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+
+        /*
+         * EFFECTS: returns the expense with id and the details in fields, throwing IllegalArgumentException or a
+         *          subclass of it if they are not where columns says or cannot be parsed
+         */
+        private static Expense parseExpense(Columns columns, List<String> fields, ExpenseID id) {
+            if (fields.size() != columns.count) {
+                throw new IllegalArgumentException("Expected " + columns.count + " fields but found " + fields.size());
+            }
+            Category category = columns.category < 0 ? null : categoryOf(fields.get(columns.category).trim());
+            try {
+                return new Expense(priceOf(fields.get(columns.price)), fields.get(columns.description).trim(),
+                        fields.get(columns.vendor).trim(),
+                        LocalDate.parse(fields.get(columns.date).trim()),
+                        category == null ? Category.OTHER : category, id);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date: " + fields.get(columns.date));
+            }
+        }
+
+        /*
+         * EFFECTS: returns the amount in field, ignoring dollar signs, thousands separators and spaces, throwing
+         *          IllegalArgumentException or a subclass of it if it cannot be parsed or is not finite, as a field of
+         *          "NaN", "Infinity" or "1e999" would be
+         */
+        private static double priceOf(String field) {
+            double price = Double.parseDouble(field.replaceAll("[$,\\s]", ""));
+            if (Double.isNaN(price) || Double.isInfinite(price)) {
+                throw new IllegalArgumentException("Invalid amount: " + field);
+            }
+            return price;
+        }
+
+        /*
+         * EFFECTS: returns the category with name, or with the constant name, regardless of case; null if none has
+         */
+        private static Category categoryOf(String name) {
+            Category category = Category.stringToCategory(name);
+            if (category == null) {
+                category = Arrays.stream(Category.values()).filter(c -> c.name().equalsIgnoreCase(name)).findFirst()
+                        .orElse(null);
+            }
+            return category;
+        }
+    }
+
+    // Represents the rows of a CSV file, read one at a time along with the byte offset each starts at; a line break
+    // inside double quotes belongs to the row, and blank rows are skipped
+    static class RecordReader implements Closeable {
+
+        private final SeekableByteChannel channel;      // the file being read
+        private final InputStream in;                   // reads from channel
+        private final byte[] buffer = new byte[1 << 16];    // the bytes of the file read ahead
+        private int position;                           // the index in buffer of the next byte
+        private int limit;                              // the number of bytes in buffer
+        private byte[] record = new byte[256];          // the bytes of the row being read
+        private long offset;                            // the byte offset in the file of the next byte
+        private long recordOffset;                      // the byte offset in the file of the last row read
+        private long row;                               // the number of rows read, blank ones included
+
+        RecordReader(Path file) throws IOException {
+            this.channel = Files.newByteChannel(file);
+            this.in = Channels.newInputStream(channel);
+        }
+
+        long getOffset() {
+            return offset;
+        }
+
+        long getRecordOffset() {
+            return recordOffset;
+        }
+
+        long getRow() {
+            return row;
+        }
+
+        /*
+         * REQUIRES: offset is where a row of the file starts, and row is the number of rows before it
+         * MODIFIES: this
+         * EFFECTS: goes on reading from byte offset of the file, as if row rows had been read
+         */
+        void seek(long offset, long row) throws IOException {
+            channel.position(offset);
+            this.offset = offset;
+            this.row = row;
+            position = 0;
+            limit = 0;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: returns the next row that is not blank, without its line break, or null if there is none
+         */
+        String next() throws IOException {
+            String next = nextRow();
+            while (next != null && next.isEmpty()) {
+                next = nextRow();
+            }
+            return next;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: returns the next row, without its line break, or null at the end of the file
+         */
+        private String nextRow() throws IOException {
+            recordOffset = offset;
+            int length = 0;
+            boolean quoted = false;
+            for (int b = read(); b != '\n' || quoted; b = read()) {
+                if (b < 0) {
+                    if (offset == recordOffset) {
+                        return null;
+                    }
+                    break;
+                }
+                quoted ^= b == '"';
+                if (length == record.length) {
+                    record = Arrays.copyOf(record, length * 2);
+                }
+                record[length++] = (byte) b;
+            }
+            row++;
+            length = length > 0 && record[length - 1] == '\r' ? length - 1 : length;
+            return new String(record, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: returns the next byte of the file, or -1 at its end
+         */
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = Math.max(in.read(buffer), 0);
+                position = 0;
+                if (limit == 0) {
+                    return -1;
+                }
+            }
+            offset++;
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package persistence;
+
+import model.SpendingTracker;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Represents the checkpoints of an import of a file into a spending tracker, kept in a file under ./data named after
+// a hash of the file's path, so that an import cut short can be resumed instead of started over, even from a file in
+// a directory that cannot be written to. The first line of the checkpoint file describes the file being imported;
+// each line after it is appended once a chunk of rows has been added to the tracker, and holds the byte offset and
+// row number just past the chunk along with the id of the last expense the chunk added. The chunk is added as one
+// batch, so it only counts as done if the tracker still holds that expense, and an import resumed into a tracker
+// that lost its last changes picks up from the last chunk it kept. Like the journal, a line cut short by a crash is
+// ignored.
+public class ImportCheckpoint implements Closeable {
+
+    public static final String SUFFIX = ".checkpoint";  // added to the hash naming a checkpoint file
+
+    private final Path file;            // the checkpoint file
+    private Writer out;                 // appends to file, or null once closed
+    private long offset;                // the byte offset just past the last chunk done, or 0 if none is
+    private long row;                   // the number of rows up to that offset, counting the header as row 1
+
+    /*
+     * EFFECTS: constructs the checkpoints of an import of source that has not done any chunk yet
+     */
+    private ImportCheckpoint(Path source) {
+        this.file = fileOf(source);
+    }
+
+    /*
+     * EFFECTS: returns the checkpoint file of an import of source, named after the SHA-256 hash of its absolute path
+     */
+    static Path fileOf(Path source) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return Paths.get("./data/" + name + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform supports SHA-256", e);
+        }
+    }
+
+    /*
+     * MODIFIES: the checkpoint file of source
+     * EFFECTS: returns the checkpoints of an import of source into tracker, resumed after the last chunk done if the
+     *          checkpoint file describes source as it is now; the lines after that chunk are dropped from the file,
+     *          and a checkpoint file of some other version of source is started over
+     */
+    static ImportCheckpoint open(Path source, SpendingTracker tracker) throws IOException {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(source);
+        JSONObject description = describe(source);
+        Files.createDirectories(checkpoint.file.getParent());
+        long kept = Files.exists(checkpoint.file) ? checkpoint.resume(description, tracker) : 0;
+        try (FileChannel channel = FileChannel.open(checkpoint.file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(Math.min(kept, channel.size()));
+        }
+        checkpoint.out = Files.newBufferedWriter(checkpoint.file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        if (kept == 0) {
+            checkpoint.append(description.toString());
+        } else if (kept > Files.size(checkpoint.file)) {
+            checkpoint.append("");
+        }
+        return checkpoint;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that the chunk of rows ending at byte offset end, row number endRow, is done, having added
+     *          the expense with id lastId to the tracker last, or no expense if lastId is null
+     */
+    void commit(long end, long endRow, String lastId) throws IOException {
+        StringBuilder line = new StringBuilder();
+        JSONWriter writer = new JSONWriter(line).object().key("end").value(end).key("row").value(endRow);
+        if (lastId != null) {
+            writer.key("last").value(lastId);
+        }
+        writer.endObject();
+        append(line.toString());
+        offset = end;
+        row = endRow;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the checkpoint file and deletes it, now that the import is done
+     */
+    void finish() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: resumes after the last chunk in the checkpoint file that tracker holds the last expense of, provided
+     *          every chunk before it is done too, and returns the number of bytes of the file up to its line; returns
+     *          0 if the file does not describe the source as description does
+     */
+    private long resume(JSONObject description, SpendingTracker tracker) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (line == null || !sameSource(description, parse(line))) {
+                return 0;
+            }
+            long kept = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            for (line = in.readLine(); line != null; line = in.readLine()) {
+                JSONObject chunk = parse(line);
+                if (chunk == null || !holdsLast(tracker, chunk)) {
+                    break;
+                }
+                offset = chunk.getLong("end");
+                row = chunk.getLong("row");
+                kept += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            return kept;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: appends line to the checkpoint file and flushes it, so that it survives the application crashing
+     */
+    private void append(String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    /*
+     * EFFECTS: returns the record on line, or null if it is not a complete one
+     */
+    private static JSONObject parse(String line) {
+        try {
+            return new JSONObject(line);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /*
+     * EFFECTS: returns true if tracker holds the last expense added by chunk, or chunk added none
+     */
+    private static boolean holdsLast(SpendingTracker tracker, JSONObject chunk) {
+        return !chunk.has("last") || tracker.getExpense(chunk.getString("last")) != null;
+    }
+
+    /*
+     * EFFECTS: returns true if recorded describes the same version of a source as description
+     */
+    private static boolean sameSource(JSONObject description, JSONObject recorded) {
+        return recorded != null && description.getString("source").equals(recorded.optString("source"))
+                && description.getLong("size") == recorded.optLong("size", -1)
+                && description.getLong("modified") == recorded.optLong("modified", -1);
+    }
+
+    /*
+     * EFFECTS: returns the name, length and time of last change of source, which tell one version of it from another
+     */
+    private static JSONObject describe(Path source) throws IOException {
+        return new JSONObject().put("source", source.getFileName().toString()).put("size", Files.size(source))
+                .put("modified", Files.getLastModifiedTime(source).toMillis());
+    }
+}
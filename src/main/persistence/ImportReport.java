@@ -0,0 +1,104 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents the outcome of importing a file of expenses: how many of its rows were imported, and each row that was
+// rejected along with why
+public class ImportReport {
+
+    private int imported;                       // the number of rows imported as expenses
+    private int skipped;                        // the number of valid rows whose expense was already imported
+    private long resumedAfterRow;               // the last row imported before the import was resumed, or 0
+    private final List<Rejection> rejections;   // the rows that were not, in the order of the file
+
+    /*
+     * EFFECTS: constructs the report of an import that has not imported or rejected any row yet
+     */
+    public ImportReport() {
+        rejections = new ArrayList<>();
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public long getResumedAfterRow() {
+        return resumedAfterRow;
+    }
+
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that count more rows have been imported
+     */
+    void addImported(int count) {
+        imported += count;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that count more rows were skipped because their expenses had already been imported
+     */
+    void addSkipped(int count) {
+        skipped += count;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that the import was resumed after row, so the rows up to it are not counted in this report
+     */
+    void setResumedAfterRow(long row) {
+        resumedAfterRow = row;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that each row in rejected has been rejected
+     */
+    void addRejections(List<Rejection> rejected) {
+        rejections.addAll(rejected);
+    }
+
+    // Represents a row of an imported file that is not a valid expense
+    public static class Rejection {
+
+        private final long row;         // the number of the row in the file, counting its header as row 1
+        private final String record;    // the row as it is in the file
+        private final String reason;    // why the row is not a valid expense
+
+        /*
+         * EFFECTS: constructs the rejection of record, row number row of its file, for reason
+         */
+        public Rejection(long row, String record, String reason) {
+            this.row = row;
+            this.record = record;
+            this.reason = reason;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getRecord() {
+            return record;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + row + ": " + reason;
+        }
+    }
+}
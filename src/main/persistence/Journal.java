@@ -0,0 +1,562 @@
+package persistence;
+
+import model.Budget;
+import model.Expense;
+import model.LedgerListener;
+import model.SpendingTracker;
+import model.exceptions.ExpenseDoesNotExistException;
+import model.exceptions.ZeroLengthException;
+import model.exceptions.ZeroOrLessException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Represents the journal of an EasyBudget session: every change made to its budget and spending tracker is recorded
+// as one line of JSON as soon as it is made, so that a session cut short by a crash can be picked up where it
+// stopped. The thread making a change only queues its record; a writer thread appends the records queued to the
+// journal file and flushes it once per batch, so a change never waits on the disk, and a crash loses at most the
+// batch being written. Each line holds the whole new state of what changed, so a line replayed twice does no harm;
+// once the journal grows past its threshold, it is folded into a snapshot of the session by an AutoSaver. The
+// snapshot of a session is a binary snapshot, which is far quicker to write and read back than JSON.
+// The saved file the session started from is only ever replaced by save; it is a JSON file if its name ends in
+// .json, and the directory of a partitioned ledger otherwise.
+public class Journal implements LedgerListener, Closeable {
+
+    public static final long COMPACTION_THRESHOLD = 4L * 1024 * 1024;  // journal length that starts a compaction
+
+    private static final String SAVED = "saved";            // base of a session started from its saved file
+    private static final String SESSION = ".session";       // added to the saved file to name the snapshot
+    private static final String JOURNAL = ".journal";       // added to the saved file to name the journal
+    private static final String ROTATED = ".journal.old";   // added to the saved file to name the moved journal
+
+    private final String filename;              // the saved file of the session, in the data directory
+    private final String sessionName;           // the snapshot of the session, in the data directory
+    private final Path sessionFile;             // the snapshot of the session, if it has been compacted
+    private final Path journalFile;             // the changes made since the snapshot, or since the session started
+    private final Path rotatedFile;             // the changes being folded into a new snapshot, if any
+    private final long threshold;               // journal length in chars that starts a compaction
+    private final AutoSaver sessionSaver;       // folds the journal into snapshots of the session
+    private final ExecutorService batchWriter;  // writes the queued records to journalFile, a batch at a time
+    private final Object fileLock;              // held while journalFile is written to, moved or closed
+    private Budget budget;                      // the budget of the session
+    private JSONObject budgetJson;              // the budget as of its last change, taken on the thread changing it
+    private SpendingTracker tracker;            // the spending tracker of the session
+    private PartitionedLedger ledger;           // the ledger filename was last loaded from, if it is one
+    private List<String> queued;                // the records appended that have not been written yet
+    private boolean writing;                    // true if batchWriter has been asked to write the queued records
+    private boolean closed;                     // true once the journal no longer takes records
+    private Writer out;                         // appends to journalFile, or null once the journal is closed
+    private long size;                          // the number of chars in journalFile
+
+    /*
+     * EFFECTS: constructs a journal of the session saved to filename, compacted once it holds threshold chars
+     */
+    private Journal(String filename, long threshold) {
+        this.filename = filename;
+        this.sessionName = filename + SESSION;
+        this.sessionFile = Paths.get("./data/" + sessionName);
+        this.journalFile = Paths.get("./data/" + filename + JOURNAL);
+        this.rotatedFile = Paths.get("./data/" + filename + ROTATED);
+        this.threshold = threshold;
+        this.sessionSaver = new AutoSaver(sessionName, this::snapshotSession, this::sessionSaved,
+                AutoSaver.DEBOUNCE_MILLIS);
+        this.batchWriter = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "journal writer of " + filename);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fileLock = new Object();
+        this.queued = new ArrayList<>();
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename, or a valid directory name for a partitioned ledger
+     * MODIFIES: filename
+     * EFFECTS: if a session of filename was cut short, returns its journal with the session recovered from it
+     *          otherwise, returns the journal of a new session started from the budget and spending tracker saved
+     *          to filename, throwing NoSuchFileException if there is no such file
+     */
+    public static Journal open(String filename) throws IOException {
+        return open(filename, COMPACTION_THRESHOLD);
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename, or a valid directory name for a partitioned ledger
+     * MODIFIES: filename
+     * EFFECTS: same as open(filename), compacting the journal once it holds threshold chars
+     */
+    static Journal open(String filename, long threshold) throws IOException {
+        Journal journal = new Journal(filename, threshold);
+        if (hasSession(filename)) {
+            journal.recover();
+            journal.attach();
+        } else {
+            journal.load(filename);
+            journal.attach();
+            journal.append(writer -> writer.object().key("base").value(SAVED).endObject());
+        }
+        return journal;
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename, or a valid directory name for a partitioned ledger
+     * MODIFIES: filename, budget, tracker
+     * EFFECTS: discards any session of filename that was cut short, and returns the journal of a new session of
+     *          budget and tracker, whose snapshot is written once as the base the journal is replayed over; the file
+     *          saved to filename is left as it is, and callers should check hasSession and ask the user before
+     *          discarding a session that was never saved
+     */
+    public static Journal start(String filename, Budget budget, SpendingTracker tracker) throws IOException {
+        return start(filename, budget, tracker, COMPACTION_THRESHOLD);
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename, or a valid directory name for a partitioned ledger
+     * MODIFIES: filename, budget, tracker
+     * EFFECTS: same as start(filename, budget, tracker), compacting the journal once it holds threshold chars
+     */
+    static Journal start(String filename, Budget budget, SpendingTracker tracker, long threshold) throws IOException {
+        Journal journal = new Journal(filename, threshold);
+        journal.clearSession();
+        journal.budget = budget;
+        journal.tracker = tracker;
+        Path temp = Paths.get("./data/" + journal.sessionName + ".tmp");
+        BinarySnapshot.write(temp, budget, tracker.snapshot());
+        PersistenceManager.replace(temp, journal.sessionName);
+        journal.attach();
+        return journal;
+    }
+
+    /*
+     * EFFECTS: returns true if a session of filename was cut short before it was saved or discarded, so that open
+     *          would recover it and start would discard it
+     */
+    public static boolean hasSession(String filename) {
+        return Files.exists(Paths.get("./data/" + filename + SESSION))
+                || Files.exists(Paths.get("./data/" + filename + JOURNAL))
+                || Files.exists(Paths.get("./data/" + filename + ROTATED));
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public SpendingTracker getSpendingTracker() {
+        return tracker;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: appends the new state of e to the journal
+     */
+    @Override
+    public void expenseSaved(Expense e) {
+        append(writer -> {
+            writer.object().key("expense");
+            e.writeJson(writer);
+            writer.endObject();
+        });
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: appends the deletion of e to the journal
+     */
+    @Override
+    public void expenseDeleted(Expense e) {
+        append(writer -> writer.object().key("deleted").value(e.getId()).endObject());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: appends the whole of b to the journal; a budget holds at most one item per category, so it is never
+     *          worth recording only what changed
+     */
+    @Override
+    public synchronized void budgetChanged(Budget b) {
+        budgetJson = b.saveToJson();
+        append(writer -> writer.object().key("budget").value(budgetJson).endObject());
+    }
+
+    /*
+     * REQUIRES: the journal is open, and no change is made to the budget or spending tracker while it is saved
+     * MODIFIES: this, filename
+     * EFFECTS: saves the budget and spending tracker to filename, replacing it only once the new file is complete,
+     *          and starts a new session from it; may be called on any thread. If the spending tracker is that of the
+     *          partitioned ledger filename was loaded from, only the months changed since are written
+     */
+    public void save() throws IOException {
+        if (filename.endsWith(".json")) {
+            JSONObject savedBudget;
+            synchronized (this) {
+                savedBudget = budgetJson;
+            }
+            List<Expense> expenses = tracker.snapshot();
+            PersistenceManager.writeJsonAtomically(filename, writer -> writeSnapshot(writer, savedBudget, expenses));
+        } else if (ledger != null && ledger.getSpendingTracker() == tracker) {
+            ledger.saveChanges(budget);
+        } else {
+            PartitionedLedger.save(budget, tracker, filename);
+        }
+        synchronized (fileLock) {
+            writeQueued();
+            out.close();
+            clearSession();
+            out = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+            size = 0;
+            append(writer -> writer.object().key("base").value(SAVED).endObject());
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the journal and deletes every file of the session, leaving the saved file as it is
+     */
+    public void discard() throws IOException {
+        close();
+        clearSession();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops listening to the budget and spending tracker, waits for the snapshot being taken, if any,
+     *          writes the records still queued and closes the journal file; the session can still be recovered with
+     *          open
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            budget.removeListener(this);
+            tracker.removeListener(this);
+            closed = true;
+        }
+        sessionSaver.close();
+        batchWriter.shutdown();
+        try {
+            batchWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal to be written");
+        }
+        synchronized (fileLock) {
+            if (out != null) {
+                writeQueued();
+                out.close();
+                out = null;
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the records queued so far to the journal file right away, and flushes it
+     */
+    void flush() throws IOException {
+        synchronized (fileLock) {
+            writeQueued();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: folds the journal into a snapshot of the session right away, and waits for it to be written
+     */
+    void compactNow() throws IOException {
+        await(sessionSaver.saveNow());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: queues the record written by record to be appended to the journal as one line, and asks the writer
+     *          thread to write it unless it has already been asked to write the records queued before it; called on
+     *          the thread making the change, often while it holds the lock of the spending tracker, so it does not
+     *          wait on the disk
+     */
+    private synchronized void append(Consumer<JSONWriter> record) {
+        if (closed) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        record.accept(new JSONWriter(line));
+        line.append('\n');
+        queued.add(line.toString());
+        if (!writing) {
+            writing = true;
+            batchWriter.execute(() -> {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    /*
+     * REQUIRES: the calling thread holds fileLock, and not the lock of this
+     * MODIFIES: this
+     * EFFECTS: appends every record queued to the journal file in one batch and flushes it once, so that they
+     *          survive the application crashing; asks for a snapshot if the journal has grown past its threshold,
+     *          unless it is being closed
+     */
+    private void writeQueued() throws IOException {
+        List<String> lines;
+        boolean compacting;
+        synchronized (this) {
+            lines = queued;
+            queued = new ArrayList<>();
+            writing = false;
+            compacting = !closed;
+        }
+        if (lines.isEmpty() || out == null) {
+            return;
+        }
+        for (String line : lines) {
+            out.write(line);
+            size += line.length();
+        }
+        out.flush();
+        if (compacting && size >= threshold) {
+            sessionSaver.request();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: moves the journal aside and returns what writes a snapshot of the session taken after that; called
+     *          by sessionSaver while changes go on being made, which is safe because the moved journal and the new
+     *          one are replayed over the snapshot in full
+     */
+    private SnapshotWriter snapshotSession() {
+        JSONObject snapshotBudget;
+        synchronized (fileLock) {
+            try {
+                rotate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (this) {
+                snapshotBudget = budgetJson;
+            }
+        }
+        List<Expense> expenses = tracker.snapshot();
+        return file -> BinarySnapshot.write(file, budgetOf(snapshotBudget), expenses);
+    }
+
+    /*
+     * EFFECTS: returns the budget that json holds, which was taken from a valid budget
+     */
+    private static Budget budgetOf(JSONObject json) throws IOException {
+        try {
+            return Budget.fromJson(json);
+        } catch (ZeroOrLessException e) {
+            throw new IOException("The budget of the session is not valid", e);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: deletes the moved journal, now that it has been folded into the snapshot of the session
+     */
+    private void sessionSaved() {
+        try {
+            Files.deleteIfExists(rotatedFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * REQUIRES: the calling thread holds fileLock, and not the lock of this
+     * MODIFIES: this
+     * EFFECTS: writes the records queued so far, then moves the journal file aside and starts a new one, unless the
+     *          changes of a compaction that failed are still waiting to be folded in, in which case they are folded
+     *          in along with the ones since
+     */
+    private void rotate() throws IOException {
+        if (Files.exists(rotatedFile)) {
+            return;
+        }
+        writeQueued();
+        out.close();
+        Files.move(journalFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        out = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+        size = 0;
+    }
+
+    /*
+     * MODIFIES: writer
+     * EFFECTS: writes budget and expenses as a saved EasyBudget application
+     */
+    private static void writeSnapshot(JSONWriter writer, JSONObject budget, List<Expense> expenses) {
+        writer.object().key("budget").value(budget);
+        writer.key("spendingTracker").object().key("expenses").array();
+        for (Expense e : expenses) {
+            e.writeJson(writer);
+        }
+        writer.endArray().endObject().endObject();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: rebuilds the session from its snapshot, if any, and the journals written since
+     */
+    private void recover() throws IOException {
+        if (Files.exists(sessionFile)) {
+            load(sessionName);
+        }
+        replay(rotatedFile);
+        replay(journalFile);
+        if (budget == null || tracker == null) {
+            throw new IOException("The journal of " + filename + " does not hold a whole session");
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: applies each complete record in file, if it exists, in order; a line that is not a complete record
+     *          was cut short by a crash and is skipped
+     */
+    private void replay(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                JSONObject record;
+                try {
+                    record = new JSONObject(line);
+                } catch (JSONException e) {
+                    continue;
+                }
+                apply(record);
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: makes the change recorded by record to the budget or spending tracker of the session
+     */
+    private void apply(JSONObject record) throws IOException {
+        try {
+            if (record.has("expense")) {
+                put(Expense.fromJson(record.getJSONObject("expense")));
+            } else if (record.has("deleted")) {
+                tracker.deleteExpense(record.getString("deleted"));
+            } else if (record.has("budget")) {
+                budget = Budget.fromJson(record.getJSONObject("budget"));
+            } else if (SAVED.equals(record.optString("base"))) {
+                load(filename);
+            }
+        } catch (ExpenseDoesNotExistException e) {
+            // the expense was already deleted when the snapshot was taken
+        } catch (ZeroOrLessException | ZeroLengthException e) {
+            // every record was valid when it was appended
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds e to the spending tracker, or sets every detail of the expense with its id to those of e
+     */
+    private void put(Expense e) throws ExpenseDoesNotExistException, ZeroOrLessException, ZeroLengthException {
+        String id = e.getId();
+        if (tracker.getExpense(id) == null) {
+            tracker.addExpense(e);
+            return;
+        }
+        tracker.editPriceOf(id, e.getPrice());
+        tracker.editDescriptionOf(id, e.getDescription());
+        tracker.editVendorOf(id, e.getVendor());
+        tracker.editDateOf(id, e.getDate());
+        tracker.editCategoryOf(id, e.getCategory());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: loads the budget and spending tracker of the session from name, throwing IOException if they are
+     *          not valid; if name is a partitioned ledger, the spending tracker is the ledger's own, so that save
+     *          can write only the months changed since
+     */
+    private void load(String name) throws IOException {
+        ledger = null;
+        if (PartitionedLedger.isPartitioned(Paths.get("./data/" + name))) {
+            ledger = PartitionedLedger.open(name);
+            try {
+                budget = ledger.getBudget();
+            } catch (ZeroOrLessException e) {
+                budget = null;
+            }
+            tracker = ledger.getSpendingTracker();
+        } else {
+            budget = PersistenceManager.loadBudget(name);
+            tracker = PersistenceManager.loadSpendingTracker(name);
+        }
+        if (budget == null || tracker == null) {
+            throw new IOException("The budget and spending tracker in " + name + " are not valid");
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: opens the journal file for appending, and starts recording every change made to the budget and
+     *          spending tracker in it; a record cut short by a crash is ended first, so it stays on a line of its own
+     */
+    private void attach() throws IOException {
+        out = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        size = Files.size(journalFile);
+        if (size > 0) {
+            out.write('\n');
+            size++;
+        }
+        budgetJson = budget.saveToJson();
+        budget.addListener(this);
+        tracker.addListener(this);
+    }
+
+    private void clearSession() throws IOException {
+        Files.deleteIfExists(rotatedFile);
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(sessionFile);
+    }
+
+    /*
+     * EFFECTS: waits for task to finish, rethrowing the exception it failed with, if any
+     */
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal to be compacted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package persistence;
+
+import model.Budget;
+import model.Expense;
+import model.ExpenseSource;
+import model.SpendingTracker;
+import model.exceptions.ZeroOrLessException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents an EasyBudget application saved as a directory in the data directory, holding one partition per month
+// with expenses in it, in the partition format of BinarySnapshot, and a small JSON manifest listing the partitions
+// along with the budget. Opening a ledger reads only its manifest; its spending tracker loads each partition the
+// first time one of its queries reaches that month, and saveChanges rewrites only the partitions of the months it
+// has changed since. Each save writes its partitions under a new generation and then replaces the manifest, so the
+// ledger holds either all of the old save or all of the new one
+public class PartitionedLedger implements ExpenseSource {
+
+    static final String MANIFEST = "manifest.json";     // the name of the manifest in the directory of a ledger
+    static final int VERSION = 1;                       // the version of the manifest written by this class
+
+    private final String dirname;                       // the directory of the ledger, in the data directory
+    private final Path directory;                       // the directory of the ledger
+    private JSONObject budgetJson;                      // the budget, as the manifest holds it
+    private volatile Map<YearMonth, Partition> partitions;  // the partition of each month with expenses in it
+    private long nextSequence;                          // greater than the sequence number of every expense saved
+    private long generation;                            // the generation of the last save
+    private SpendingTracker tracker;                    // the spending tracker of the ledger, once asked for
+    private Map<YearMonth, Long> savedCounts;           // the modification counts of tracker as of the last save
+
+    /*
+     * EFFECTS: constructs a ledger in dirname from its manifest
+     */
+    private PartitionedLedger(String dirname, JSONObject manifest) {
+        this.dirname = dirname;
+        this.directory = Paths.get("./data/" + dirname);
+        this.budgetJson = manifest.getJSONObject("budget");
+        this.nextSequence = manifest.getLong("nextSequence");
+        this.generation = manifest.optLong("generation");
+        this.savedCounts = new HashMap<>();
+        Map<YearMonth, Partition> listed = new TreeMap<>();
+        for (Object obj : manifest.getJSONArray("partitions")) {
+            JSONObject partition = (JSONObject) obj;
+            listed.put(YearMonth.parse(partition.getString("month")),
+                    new Partition(partition.getString("file"), partition.getInt("count")));
+        }
+        this.partitions = listed;
+    }
+
+    /*
+     * EFFECTS: returns true if path is the directory of a partitioned ledger, false otherwise
+     */
+    public static boolean isPartitioned(Path path) {
+        return Files.isRegularFile(path.resolve(MANIFEST));
+    }
+
+    /*
+     * REQUIRES: dirname is a valid directory name
+     * MODIFIES: dirname
+     * EFFECTS: saves b and s to dirname as a partitioned ledger, creating the directory if it does not exist; the
+     *          partitions of the save before are deleted only once the manifest of this one has replaced theirs
+     */
+    public static void save(Budget b, SpendingTracker s, String dirname) throws IOException {
+        Path directory = Paths.get("./data/" + dirname);
+        Files.createDirectories(directory);
+        long generation = isPartitioned(directory) ? readManifest(dirname).optLong("generation") + 1 : 1;
+        List<Expense> expenses = s.snapshot();
+        Map<YearMonth, List<Expense>> byMonth = new TreeMap<>();
+        for (Expense e : expenses) {
+            byMonth.computeIfAbsent(YearMonth.from(e.getDate()), month -> new ArrayList<>()).add(e);
+        }
+        Map<YearMonth, Partition> written = new TreeMap<>();
+        for (Map.Entry<YearMonth, List<Expense>> entry : byMonth.entrySet()) {
+            written.put(entry.getKey(), writePartition(dirname, entry.getKey(), entry.getValue(), generation));
+        }
+        long nextSequence = expenses.isEmpty() ? 0 : expenses.get(expenses.size() - 1).getSequence() + 1;
+        commit(dirname, b, generation, nextSequence, written);
+    }
+
+    /*
+     * REQUIRES: b is the budget of the ledger, and the directory of the ledger has only been saved to through
+     *           saveChanges since the ledger was opened
+     * MODIFIES: this, the directory of the ledger
+     * EFFECTS: saves b and the changes made to getSpendingTracker() since the ledger was opened or last saved,
+     *          rewriting only the manifest and the partitions of the months changed since; the months that have
+     *          not changed are neither loaded nor written, so a small change saves quickly however large the ledger
+     */
+    public synchronized void saveChanges(Budget b) throws IOException {
+        Map<YearMonth, Long> counts = getSpendingTracker().modificationCounts();
+        Map<YearMonth, Partition> written = new TreeMap<>(partitions);
+        long next = nextSequence;
+        for (Map.Entry<YearMonth, Long> entry : counts.entrySet()) {
+            if (entry.getValue().equals(savedCounts.get(entry.getKey()))) {
+                continue;
+            }
+            List<Expense> ofMonth = tracker.snapshotOf(entry.getKey());
+            if (ofMonth.isEmpty()) {
+                written.remove(entry.getKey());
+            } else {
+                written.put(entry.getKey(), writePartition(dirname, entry.getKey(), ofMonth, generation + 1));
+                next = Math.max(next, ofMonth.get(ofMonth.size() - 1).getSequence() + 1);
+            }
+        }
+        commit(dirname, b, generation + 1, next, written);
+        generation++;
+        nextSequence = next;
+        partitions = written;
+        savedCounts = counts;
+        budgetJson = b.saveToJson();
+    }
+
+    /*
+     * REQUIRES: dirname is the directory of a partitioned ledger
+     * EFFECTS: returns the ledger saved to dirname, having read only its manifest; throws IOException if the
+     *          manifest cannot be read or is of a version this class cannot read
+     */
+    public static PartitionedLedger open(String dirname) throws IOException {
+        JSONObject manifest = readManifest(dirname);
+        try {
+            int version = manifest.getInt("version");
+            if (version != VERSION) {
+                throw new IOException(dirname + " is a partitioned ledger of unknown version " + version);
+            }
+            return new PartitionedLedger(dirname, manifest);
+        } catch (JSONException | ClassCastException e) {
+            throw new IOException("The manifest of " + dirname + " is malformed", e);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the budget of the ledger; throws ZeroOrLessException if its limit is not positive
+     */
+    public synchronized Budget getBudget() throws ZeroOrLessException {
+        return Budget.fromJson(budgetJson);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns the spending tracker of the ledger, which loads each month of its expenses the first time one
+     *          of its queries reaches it; every call returns the same tracker
+     */
+    public synchronized SpendingTracker getSpendingTracker() {
+        if (tracker == null) {
+            tracker = new SpendingTracker(this);
+        }
+        return tracker;
+    }
+
+    @Override
+    public Set<YearMonth> months() {
+        return partitions.keySet();
+    }
+
+    @Override
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    /*
+     * REQUIRES: months().contains(month)
+     * EFFECTS:  returns the expenses in the partition of month; throws UncheckedIOException if it cannot be read or
+     *           does not hold as many expenses as the manifest says; the lock of this is not taken, since the
+     *           tracker calls this while holding its own lock, which saveChanges waits for while holding this one
+     */
+    @Override
+    public List<Expense> load(YearMonth month) {
+        Partition partition = partitions.get(month);
+        try {
+            List<Expense> expenses = BinarySnapshot.readPartition(directory.resolve(partition.file));
+            if (expenses.size() != partition.count) {
+                throw new IOException("Partition " + partition.file + " holds " + expenses.size()
+                        + " expenses instead of " + partition.count);
+            }
+            return expenses;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * REQUIRES: months().containsAll(months)
+     * EFFECTS:  returns the expenses in the partition of each month in months, in date order, decoding the
+     *           partitions concurrently on a pool of up to one thread per core made for this load and shut down once
+     *           it is done; throws UncheckedIOException if one of them cannot be read, as load does
+     */
+    @Override
+    public Map<YearMonth, List<Expense>> loadAll(Collection<YearMonth> months) {
+        if (months.size() < 2) {
+            return ExpenseSource.super.loadAll(months);
+        }
+        ExecutorService decoders = Executors.newFixedThreadPool(
+                Math.min(months.size(), Runtime.getRuntime().availableProcessors()), task -> {
+                    Thread thread = new Thread(task, "partition decoder of " + dirname);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            return decode(months, decoders);
+        } finally {
+            decoders.shutdownNow();
+        }
+    }
+
+    /*
+     * EFFECTS: returns the expenses in the partition of each month in months, in date order, decoding them on
+     *          decoders; cancels the decoding of the rest if one of them fails
+     */
+    private Map<YearMonth, List<Expense>> decode(Collection<YearMonth> months, ExecutorService decoders) {
+        Map<YearMonth, Future<List<Expense>>> decoding = new TreeMap<>();
+        for (YearMonth month : months) {
+            decoding.put(month, decoders.submit(() -> load(month)));
+        }
+        Map<YearMonth, List<Expense>> loaded = new TreeMap<>();
+        try {
+            for (Map.Entry<YearMonth, Future<List<Expense>>> entry : decoding.entrySet()) {
+                loaded.put(entry.getKey(), entry.getValue().get());
+            }
+            return loaded;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while loading " + dirname));
+        } finally {
+            decoding.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    /*
+     * EFFECTS: returns the manifest of the ledger saved to dirname
+     */
+    private static JSONObject readManifest(String dirname) throws IOException {
+        try {
+            return new JSONObject(PersistenceManager.read(dirname + "/" + MANIFEST));
+        } catch (JSONException e) {
+            throw new IOException("The manifest of " + dirname + " is malformed", e);
+        }
+    }
+
+    /*
+     * REQUIRES: ofMonth is not empty and is in increasing order of sequence number
+     * MODIFIES: dirname
+     * EFFECTS: writes ofMonth as the partition of month in generation, replacing it only once it is complete, and
+     *          returns it
+     */
+    private static Partition writePartition(String dirname, YearMonth month, List<Expense> ofMonth, long generation)
+            throws IOException {
+        Partition partition = new Partition(month + "." + generation + ".bin", ofMonth.size());
+        Path temp = Paths.get("./data/" + dirname + "/" + partition.file + ".tmp");
+        BinarySnapshot.writePartition(temp, ofMonth);
+        PersistenceManager.replace(temp, dirname + "/" + partition.file);
+        return partition;
+    }
+
+    /*
+     * MODIFIES: dirname
+     * EFFECTS: replaces the manifest of dirname with that of generation, which lists partitions, and then deletes
+     *          every partition it does not list
+     */
+    private static void commit(String dirname, Budget b, long generation, long nextSequence,
+                               Map<YearMonth, Partition> partitions) throws IOException {
+        PersistenceManager.writeJsonAtomically(dirname + "/" + MANIFEST,
+                writer -> writeManifest(writer, b, generation, nextSequence, partitions));
+        deleteUnlisted(Paths.get("./data/" + dirname), partitions);
+    }
+
+    /*
+     * MODIFIES: writer
+     * EFFECTS: writes the manifest of a ledger with budget b, saved as generation, whose expenses have sequence
+     *          numbers below nextSequence and are kept in partitions
+     */
+    private static void writeManifest(JSONWriter writer, Budget b, long generation, long nextSequence,
+                                      Map<YearMonth, Partition> partitions) {
+        writer.object().key("version").value(VERSION).key("generation").value(generation)
+                .key("nextSequence").value(nextSequence).key("budget");
+        b.writeJson(writer);
+        writer.key("partitions").array();
+        partitions.forEach((month, partition) -> writer.object().key("month").value(month.toString())
+                .key("file").value(partition.file).key("count").value(partition.count).endObject());
+        writer.endArray().endObject();
+    }
+
+    /*
+     * MODIFIES: directory
+     * EFFECTS: deletes every partition in directory that is not one of partitions
+     */
+    private static void deleteUnlisted(Path directory, Map<YearMonth, Partition> partitions) throws IOException {
+        Set<String> listed = new HashSet<>();
+        partitions.values().forEach(partition -> listed.add(partition.file));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    // Represents the file holding the expenses of one month and how many of them it holds
+    private static class Partition {
+
+        private final String file;      // the name of the partition in the directory of the ledger
+        private final int count;        // the number of expenses in the partition
+
+        Partition(String file, int count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+}
@@ -1,51 +1,120 @@
 package persistence;
 
 import model.Budget;
+import model.Expense;
 import model.SpendingTracker;
 import model.exceptions.ZeroOrLessException;
 import org.json.JSONException;
-import org.json.JSONObject;
+import org.json.JSONWriter;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 // Manages reading (loading) from and writing (saving) to the EasyBudget application
 public class PersistenceManager {
 
     public static final String EASY_BUDGET_FILEPATH = "easyBudget.json"; // the filepath that the budget and spending
-                                                                         // tracker is saved to when the user uses the
-                                                                         // Easy Budget! application
+                                                                         // tracker was saved to by earlier versions of
+                                                                         // the Easy Budget! application
+    public static final String EASY_BUDGET_DIRECTORY = "easyBudget";     // the partitioned ledger that the budget and
+                                                                         // spending tracker is saved to when the user
+                                                                         // uses the Easy Budget! application
 
     /*
      * REQUIRES: filename is a valid JSON filename
      * MODIFIES: filename
-     * EFFECTS: saves b and s to the .json file provided
+     * EFFECTS: saves b and s to the .json file provided, writing each expense to the file as it is reached; the file
+     *          is only replaced once the new one is complete, so a failed save leaves the old one as it was
      */
     public static void saveEasyBudget(Budget b, SpendingTracker s, String filename) throws IOException {
-        JSONObject obj = new JSONObject();
-        JSONObject budget = b.saveToJson();
-        obj.put("budget", budget);
-        JSONObject spendingTracker = s.saveToJson();
-        obj.put("spendingTracker", spendingTracker);
-        FileWriter fileWriter = new FileWriter("./data/" + filename);
-        fileWriter.write(obj.toString());
-        fileWriter.flush();
-        fileWriter.close();
+        Objects.requireNonNull(b);
+        Objects.requireNonNull(s);
+        writeJsonAtomically(filename, writer -> {
+            writer.object();
+            writer.key("budget");
+            b.writeJson(writer);
+            writer.key("spendingTracker");
+            s.writeJson(writer);
+            writer.endObject();
+        });
     }
 
     /*
-     * REQUIRES: filename is a valid JSON filename
-     * EFFECTS:  loads a Budget from filename
+     * REQUIRES: filename is a valid filename
+     * MODIFIES: filename
+     * EFFECTS: saves b and s to filename as a binary snapshot, replacing the file only once the new one is complete;
+     *          the expenses of s are copied first, so they are not locked while the file is written
+     */
+    public static void saveEasyBudgetBinary(Budget b, SpendingTracker s, String filename) throws IOException {
+        Objects.requireNonNull(b);
+        Objects.requireNonNull(s);
+        List<Expense> expenses = s.snapshot();
+        Path temp = Paths.get("./data/" + filename + ".tmp");
+        BinarySnapshot.write(temp, b, expenses);
+        replace(temp, filename);
+    }
+
+    /*
+     * REQUIRES: dirname is a valid directory name
+     * MODIFIES: dirname
+     * EFFECTS: saves b and s to dirname as a partitioned ledger, with one file for the expenses of each month, so
+     *          that loading it later reads only the months that are looked at
+     */
+    public static void saveEasyBudgetPartitioned(Budget b, SpendingTracker s, String dirname) throws IOException {
+        Objects.requireNonNull(b);
+        Objects.requireNonNull(s);
+        PartitionedLedger.save(b, s, dirname);
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename or a binary snapshot, and dirname is a valid directory name
+     * MODIFIES: dirname
+     * EFFECTS:  if dirname does not hold a partitioned ledger and filename exists, saves the budget and spending
+     *           tracker in filename to dirname as a partitioned ledger and returns true, leaving filename as it is;
+     *           throws IOException if they are not valid
+     *           otherwise, returns false
+     */
+    public static boolean migrateToPartitioned(String filename, String dirname) throws IOException {
+        if (PartitionedLedger.isPartitioned(Paths.get("./data/" + dirname))
+                || !Files.exists(Paths.get("./data/" + filename))) {
+            return false;
+        }
+        Budget b = loadBudget(filename);
+        SpendingTracker s = loadSpendingTracker(filename);
+        if (b == null || s == null) {
+            throw new IOException("The budget and spending tracker in " + filename + " are not valid");
+        }
+        PartitionedLedger.save(b, s, dirname);
+        return true;
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filename, a binary snapshot or a partitioned ledger
+     * EFFECTS:  loads a Budget from filename, in whichever of the three formats it is in
      */
     public static Budget loadBudget(String filename) throws IOException {
-        String contentString = read(filename);
-        JSONObject obj = new JSONObject(contentString);
+        Path file = Paths.get("./data/" + filename);
         try {
-            return Budget.fromJson((JSONObject) obj.get("budget"));
+            if (PartitionedLedger.isPartitioned(file)) {
+                return PartitionedLedger.open(filename).getBudget();
+            }
+            if (BinarySnapshot.isBinary(file)) {
+                return BinarySnapshot.readBudget(file);
+            }
+            try (StreamingJsonReader reader = new StreamingJsonReader(file)) {
+                return Budget.fromJson(reader.readBudget());
+            }
         } catch (ZeroOrLessException e) {
             System.out.println(e.getMessage());
         }
@@ -53,14 +122,20 @@ public class PersistenceManager {
     }
 
     /*
-     * REQUIRES: filename is a valid JSON filename
-     * EFFECTS:  loads a SpendingTracker from filename
+     * REQUIRES: filename is a valid JSON filename, a binary snapshot or a partitioned ledger
+     * EFFECTS:  loads a SpendingTracker from filename, in whichever of the three formats it is in, reading it one
+     *           expense at a time; the months of a partitioned ledger are only read once a query reaches them
      */
     public static SpendingTracker loadSpendingTracker(String filename) throws IOException {
-        String contentString = read(filename);
-        JSONObject obj = new JSONObject(contentString);
-        try {
-            return SpendingTracker.fromJson((JSONObject) obj.get("spendingTracker"));
+        Path file = Paths.get("./data/" + filename);
+        if (PartitionedLedger.isPartitioned(file)) {
+            return PartitionedLedger.open(filename).getSpendingTracker();
+        }
+        if (BinarySnapshot.isBinary(file)) {
+            return BinarySnapshot.readSpendingTracker(file);
+        }
+        try (StreamingJsonReader reader = new StreamingJsonReader(file)) {
+            return reader.readSpendingTracker();
         } catch (JSONException e) {
             System.out.println(e.getMessage());
             return null;
@@ -87,11 +162,57 @@ public class PersistenceManager {
      * EFFECTS: writes s as a JSON object to filename
      */
     public static void write(Saveable s, String filename) throws IOException {
-        JSONObject obj = s.saveToJson();
-        FileWriter fileWriter = new FileWriter("./data/" + filename);
-        fileWriter.write(obj.toString());
-        fileWriter.flush();
-        fileWriter.close();
+        writeJson(filename, s::writeJson);
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filepath
+     * MODIFIES: filename
+     * EFFECTS: writes to filename whatever document writes to the JSONWriter it is given, through a buffered UTF-8
+     *          writer, so the document is never held in memory as a whole
+     */
+    static void writeJson(String filename, Consumer<JSONWriter> document) throws IOException {
+        writeJson(Paths.get("./data/" + filename), document);
+    }
+
+    /*
+     * MODIFIES: file
+     * EFFECTS: same as writeJson(filename, document), writing to file wherever it is
+     */
+    static void writeJson(Path file, Consumer<JSONWriter> document) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            document.accept(new JSONWriter(out));
+        } catch (JSONException e) {
+            // JSONWriter reports the IOExceptions of the writer it appends to as JSONExceptions
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * REQUIRES: filename is a valid JSON filepath
+     * MODIFIES: filename
+     * EFFECTS: writes document to a temporary file next to filename, forces it to disk and then renames it over
+     *          filename, so that filename always holds either all of its old contents or all of its new ones
+     */
+    static void writeJsonAtomically(String filename, Consumer<JSONWriter> document) throws IOException {
+        writeJson(filename + ".tmp", document);
+        replace(Paths.get("./data/" + filename + ".tmp"), filename);
+    }
+
+    /*
+     * REQUIRES: temp is a complete file in the data directory
+     * MODIFIES: temp, filename
+     * EFFECTS: forces temp to disk and then renames it over filename in one step
+     */
+    static void replace(Path temp, String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, Paths.get("./data/" + filename), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
     }
 
 }
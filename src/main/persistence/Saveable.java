@@ -1,6 +1,7 @@
 package persistence;
 
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 // Represents the functionality of an object that can be saved to a JSON file
 public interface Saveable {
@@ -9,4 +10,13 @@ public interface Saveable {
      * EFFECTS: saves the Saveable as a JSONObject
      */
     JSONObject saveToJson();
+
+    /*
+     * MODIFIES: writer
+     * EFFECTS:  writes the Saveable to writer as the same JSON value that saveToJson() returns; by default by
+     *           building saveToJson(), which Saveables holding many elements override to write them one by one
+     */
+    default void writeJson(JSONWriter writer) {
+        writer.value(saveToJson());
+    }
 }
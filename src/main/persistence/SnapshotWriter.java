@@ -0,0 +1,14 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Represents a snapshot of a document that has been taken and is ready to be written out, in whatever format
+public interface SnapshotWriter {
+
+    /*
+     * MODIFIES: file
+     * EFFECTS: writes the snapshot to file, creating it or replacing what it held
+     */
+    void writeTo(Path file) throws IOException;
+}
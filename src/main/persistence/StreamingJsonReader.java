@@ -0,0 +1,166 @@
+package persistence;
+
+import model.SpendingTracker;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a reader of a saved EasyBudget application that parses the file one token at a time, so that only the
+// part of the file being read is ever held in memory
+public class StreamingJsonReader implements Closeable {
+
+    private final Reader reader;            // the buffered reader of the file
+    private final JSONTokener tokener;      // the tokens of the file, read as they are needed
+
+    /*
+     * EFFECTS: opens file for reading as UTF-8
+     */
+    public StreamingJsonReader(Path file) throws IOException {
+        reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        tokener = new JSONTokener(reader);
+    }
+
+    /*
+     * REQUIRES: nothing has been read from the file yet
+     * EFFECTS:  if the file is not a JSON object with a "budget" member, throws JSONException
+     *           otherwise, returns that member; the rest of the file is skipped without being kept in memory
+     */
+    public JSONObject readBudget() {
+        seek("budget");
+        return (JSONObject) tokener.nextValue();
+    }
+
+    /*
+     * REQUIRES: nothing has been read from the file yet
+     * EFFECTS:  if the file is not a JSON object with a "spendingTracker" member holding an "expenses" array,
+     *           throws JSONException
+     *           otherwise, returns the SpendingTracker represented by that member, building it from one expense
+     *           in the file at a time
+     */
+    public SpendingTracker readSpendingTracker() {
+        seek("spendingTracker");
+        seek("expenses");
+        expect('[');
+        return SpendingTracker.fromJson(ArrayElements::new);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  reads the opening brace of an object and its members up to the value of the member called name,
+     *           skipping the values of the members before it;
+     *           if there is no such member, throws JSONException
+     */
+    private void seek(String name) {
+        expect('{');
+        char c = tokener.nextClean();
+        while (c != '}') {
+            tokener.back();
+            String key = tokener.nextValue().toString();
+            expect(':');
+            if (key.equals(name)) {
+                return;
+            }
+            skipValue();
+            c = tokener.nextClean();
+            if (c == ',') {
+                c = tokener.nextClean();
+            }
+        }
+        throw new JSONException("JSONObject[" + JSONObject.quote(name) + "] not found.");
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  reads past the next value without building it; strings are read whole so that brackets inside them
+     *           are not counted
+     */
+    private void skipValue() {
+        int depth = 0;
+        do {
+            char c = tokener.nextClean();
+            if (c == '"' || c == '\'') {
+                tokener.nextString(c);
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == 0) {
+                throw tokener.syntaxError("Unterminated value");
+            } else if (depth == 0) {
+                tokener.back();
+                tokener.nextValue();
+            }
+        } while (depth > 0);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  if the next character other than whitespace is not expected, throws JSONException
+     *           otherwise, reads past it
+     */
+    private void expect(char expected) {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS:  closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Represents the elements of the array whose opening bracket was just read, each parsed when it is reached
+    private class ArrayElements implements Iterator<Object> {
+
+        private boolean done;   // whether the closing bracket of the array has been read
+
+        /*
+         * EFFECTS: constructs the elements of the array, which may be empty
+         */
+        ArrayElements() {
+            if (tokener.nextClean() != ']') {
+                tokener.back();
+            } else {
+                done = true;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !done;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS:  if there are no more elements, throws NoSuchElementException
+         *           otherwise, parses and returns the next element
+         */
+        @Override
+        public Object next() {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+            Object element = tokener.nextValue();
+            char c = tokener.nextClean();
+            if (c == ']') {
+                done = true;
+            } else if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+            return element;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ui;
 import model.Budget;
 import model.BudgetDesigner;
 import model.SpendingTracker;
+import persistence.Journal;
 import persistence.PersistenceManager;
 import ui.help.BudgetPlannerHelpPanel;
 import ui.help.CompareHelpPanel;
@@ -25,6 +26,7 @@ public class EasyBudgetGUI extends JFrame {
     private JPanel mainPanel = new JPanel();
     private Budget budget;
     private SpendingTracker spendingTracker;
+    private Journal journal;
     private JTabbedPane tabbedPane = new JTabbedPane();
     private BudgetTab budgetTab;
     private SpendingTrackerTab spendingTrackerTab;
@@ -38,7 +40,7 @@ public class EasyBudgetGUI extends JFrame {
         setTitle("Easy Budget!");
         setBackground(BACKGROUND_COLOUR);
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         mainPanel.setBackground(BACKGROUND_COLOUR);
         mainPanel.setPreferredSize(new Dimension(WIDTH, HEIGHT));
         setUpTabs();
@@ -51,7 +53,11 @@ public class EasyBudgetGUI extends JFrame {
 
     /*
      * MODIFIES: this
-     * EFFECTS:  allows the user to load their budget and spending tracker from file if they so choose
+     * EFFECTS:  allows the user to load their budget and spending tracker from file if they so choose, recovering
+     *           the changes made to them since if the application was not closed properly, and starts journaling
+     *           every change made to them; changes that were never saved are only discarded if the user agrees;
+     *           a budget and spending tracker saved by an earlier version of the application is moved to the
+     *           partitioned ledger they are now saved to
      */
     private void loadBudgetAndSpendingTracker() {
         int response = JOptionPane.showConfirmDialog(
@@ -60,23 +66,40 @@ public class EasyBudgetGUI extends JFrame {
                 "Load",
                 JOptionPane.YES_NO_OPTION
         );
-        if (response == JOptionPane.YES_OPTION) {
-            try {
-                budget = PersistenceManager.loadBudget(PersistenceManager.EASY_BUDGET_FILEPATH);
-                spendingTracker = PersistenceManager.loadSpendingTracker(PersistenceManager.EASY_BUDGET_FILEPATH);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, e.getMessage(),
-                        "Load Budget and Spending Tracker", JOptionPane.INFORMATION_MESSAGE);
-            }
-        } else {
-            try {
+        try {
+            if (response == JOptionPane.YES_OPTION || !discardUnsavedSession()) {
+                PersistenceManager.migrateToPartitioned(PersistenceManager.EASY_BUDGET_FILEPATH,
+                        PersistenceManager.EASY_BUDGET_DIRECTORY);
+                journal = Journal.open(PersistenceManager.EASY_BUDGET_DIRECTORY);
+                budget = journal.getBudget();
+                spendingTracker = journal.getSpendingTracker();
+            } else {
                 budget = new BudgetDesigner().createBudget(1000);
                 spendingTracker = new SpendingTracker();
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, e.getMessage(),
-                        "Load Budget and Spending Tracker", JOptionPane.INFORMATION_MESSAGE);
+                journal = Journal.start(PersistenceManager.EASY_BUDGET_DIRECTORY, budget, spendingTracker);
             }
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(),
+                    "Load Budget and Spending Tracker", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    /*
+     * EFFECTS:  returns true if the application was closed properly last time, or if the user agrees to discard the
+     *           changes made then that were never saved; returns false if the user would rather recover them
+     */
+    private boolean discardUnsavedSession() {
+        if (!Journal.hasSession(PersistenceManager.EASY_BUDGET_DIRECTORY)) {
+            return true;
         }
+        int response = JOptionPane.showConfirmDialog(
+                null,
+                "The changes you made last time were never saved. Would you like to discard them?\n"
+                        + "Choose No to recover them instead.",
+                "Unsaved Changes",
+                JOptionPane.YES_NO_OPTION
+        );
+        return response == JOptionPane.YES_OPTION;
     }
 
     /*
@@ -128,4 +151,8 @@ public class EasyBudgetGUI extends JFrame {
     public SpendingTracker getSpendingTracker() {
         return spendingTracker;
     }
+
+    public Journal getJournal() {
+        return journal;
+    }
 }
@@ -2,7 +2,7 @@ package ui;
 
 import model.Event;
 import model.EventLog;
-import persistence.PersistenceManager;
+import persistence.Journal;
 
 import javax.swing.*;
 import java.awt.event.WindowAdapter;
@@ -18,22 +18,36 @@ public class Main {
             public void windowClosing(WindowEvent e) {
                 int response = JOptionPane.showConfirmDialog(null, "Do you want to save your "
                                 + "budget and spending tracker to file?", "Save", JOptionPane.YES_NO_OPTION);
-                if (response == JOptionPane.YES_OPTION) {
-                    try {
-                        PersistenceManager.saveEasyBudget(gui.getBudget(), gui.getSpendingTracker(),
-                                PersistenceManager.EASY_BUDGET_FILEPATH);
-                    } catch (Exception ex) {
-                        ex.printStackTrace();
-                    }
-                }
-                for (Event event : EventLog.getInstance()) {
-                    System.out.println(event + "\n");
-                }
+                boolean save = response == JOptionPane.YES_OPTION;
+                new Thread(() -> endSession(gui.getJournal(), save), "easy budget saver").start();
             }
         });
         SwingUtilities.invokeLater(() -> gui.setVisible(true));
     }
 
+    /*
+     * MODIFIES: journal
+     * EFFECTS:  saves the budget and spending tracker journaled by journal to file if save, writing only the months
+     *           changed in the session, then closes journal and deletes its files, and prints the event log; called
+     *           off the event dispatch thread once the window is closed, which keeps the application running until
+     *           the save is done
+     */
+    private static void endSession(Journal journal, boolean save) {
+        if (journal != null) {
+            try {
+                if (save) {
+                    journal.save();
+                }
+                journal.discard();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        for (Event event : EventLog.getInstance()) {
+            System.out.println(event + "\n");
+        }
+    }
+
     /*
      * MODIFIES: UIManager
      * EFFECTS:  sets the look and feel of the GUI
@@ -12,7 +12,8 @@ public class SpendingTrackerHelpPanel extends HelpPanel {
                 + "your expenses: just click ''Add Expense'' in the toolbar, enter the expense details in the new "
                 + "window, and click ''OK''. To edit, select an expense in the table, then use the ''Edit Expense'' "
                 + "button or double-click. And to keep an eye on your expenses, simply navigate the table. "
-                + "You can even filter your expenses by date and/or categories using the panel on the right.</p>");
+                + "You can even filter your expenses by date and/or categories using the panel on the right. "
+                + "Unless you filter them by date, only this month's expenses are shown.</p>");
 
     }
 
@@ -7,8 +7,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.YearMonth;
 import java.util.Iterator;
 
 // The tab containing a table that compares the budget to expenses purchased in the past month
@@ -116,15 +115,7 @@ public class CompareTab extends Tab {
      * EFFECTS; returns the sum of the prices of the past month's expenses with category
      */
     private double sumOfExpensesInCategory(Category category) {
-        ArrayList<ExpenseFilter> filters = new ArrayList<>();
-        filters.add(new FilterByDate(LocalDate.now().getMonth()));
-        double expenseSum = 0;
-        for (Expense e: getController().getSpendingTracker().filter(filters)) {
-            if (e.getCategory() == category) {
-                expenseSum += e.getPrice();
-            }
-        }
-        return expenseSum;
+        return getController().getSpendingTracker().totalOf(YearMonth.now(), category);
     }
 
     /*
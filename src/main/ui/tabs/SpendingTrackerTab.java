@@ -3,15 +3,19 @@ package ui.tabs;
 import com.toedter.calendar.JDateChooser;
 import model.*;
 import model.exceptions.ExpenseDoesNotExistException;
+import persistence.CsvImporter;
+import persistence.ImportReport;
 import ui.EasyBudgetGUI;
 import ui.windows.AddExpenseDialog;
 import ui.windows.EditExpenseDialog;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.*;
@@ -22,6 +26,7 @@ public class SpendingTrackerTab extends Tab {
     private JButton addExpenseButton = new JButton("Add Expense");
     private JButton editExpenseButton = new JButton("Edit Expense");
     private JButton deleteExpenseButton = new JButton("Delete Expense");
+    private JButton importCsvButton = new JButton("Import CSV");
     private JToolBar toolBar = new JToolBar();
     private JPanel tablePanel = new JPanel(new BorderLayout());
     private DefaultTableModel expenseTableModel = new DefaultTableModel();
@@ -67,6 +72,7 @@ public class SpendingTrackerTab extends Tab {
         addExpenseButton.addActionListener(e -> addExpense());
         editExpenseButton.addActionListener(e -> editExpense());
         deleteExpenseButton.addActionListener(e -> deleteExpense());
+        importCsvButton.addActionListener(e -> importCsv());
         expenseTable.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
@@ -90,10 +96,11 @@ public class SpendingTrackerTab extends Tab {
         centerBox.add(addExpenseButton);
         centerBox.add(editExpenseButton);
         centerBox.add(deleteExpenseButton);
+        centerBox.add(importCsvButton);
         centerBox.add(Box.createHorizontalGlue()); // Add glue after buttons
         toolBar.add(centerBox);
 
-        setUpExpenseTable(getController().getSpendingTracker().getExpenses());
+        setUpExpenseTable(expensesShown());
 
         JScrollPane tableScrollPane = new JScrollPane(expenseTable);
 
@@ -107,6 +114,26 @@ public class SpendingTrackerTab extends Tab {
         setUpFilterPanel();
     }
 
+    /*
+     * EFFECTS:  returns the expenses shown in the table: those satisfying every filter chosen, made in the current
+     *           month unless a date range is chosen
+     */
+    private List<Expense> expensesShown() {
+        return expensesShown(getController().getSpendingTracker(), filters);
+    }
+
+    /*
+     * EFFECTS:  returns the expenses of tracker satisfying every filter in filters, made in the current month unless
+     *           one of filters is a date range; only the months of that range or of the current month are loaded
+     */
+    static List<Expense> expensesShown(SpendingTracker tracker, List<ExpenseFilter> filters) {
+        List<ExpenseFilter> shown = new ArrayList<>(filters);
+        if (shown.stream().noneMatch(filter -> filter instanceof FilterByDate)) {
+            shown.add(new FilterByDate(LocalDate.now().getMonth()));
+        }
+        return tracker.filter(shown);
+    }
+
     /*
      * MODIFIES: this
      * EFFECTS:  sets up the table of expenses
@@ -189,11 +216,7 @@ public class SpendingTrackerTab extends Tab {
                 filters.remove(dateFilter);
                 startDateSelect.setEnabled(false);
                 endDateSelect.setEnabled(false);
-                if (filters.size() == 0) {
-                    setUpExpenseTable(getController().getSpendingTracker().getExpenses());
-                } else {
-                    setUpExpenseTable(getController().getSpendingTracker().filter(filters));
-                }
+                setUpExpenseTable(expensesShown());
             }
         });
     }
@@ -207,7 +230,7 @@ public class SpendingTrackerTab extends Tab {
         startDateSelect.setEnabled(true);
         endDateSelect.setEnabled(true);
         filters.add(dateFilter);
-        setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+        setUpExpenseTable(expensesShown());
         startDateSelect.addPropertyChangeListener(evt -> {
             if ("date".equals(evt.getPropertyName())) {
                 dateFilter.setStartDate(LocalDate.parse(new SimpleDateFormat("yyyy-MM-dd")
@@ -215,14 +238,14 @@ public class SpendingTrackerTab extends Tab {
                 if (!filters.contains(dateFilter)) {
                     filters.add(dateFilter);
                 }
-                setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+                setUpExpenseTable(expensesShown());
             }
         });
         endDateSelect.addPropertyChangeListener(evt -> {
             if ("date".equals(evt.getPropertyName())) {
                 dateFilter.setEndDate(LocalDate.parse(new SimpleDateFormat("yyyy-MM-dd")
                         .format(endDateSelect.getDate())));
-                setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+                setUpExpenseTable(expensesShown());
             }
         });
     }
@@ -237,11 +260,7 @@ public class SpendingTrackerTab extends Tab {
                 categoryCheckSelected();
             } else {
                 filters.remove(categoryFilter);
-                if (filters.size() == 0) {
-                    setUpExpenseTable(getController().getSpendingTracker().getExpenses());
-                } else {
-                    setUpExpenseTable(getController().getSpendingTracker().filter(filters));
-                }
+                setUpExpenseTable(expensesShown());
                 for (Component component : categoryCheckboxes.getComponents()) {
                     JCheckBox currentCheckBox = (JCheckBox) component;
                     currentCheckBox.setEnabled(false);
@@ -283,7 +302,7 @@ public class SpendingTrackerTab extends Tab {
         if (!filters.contains(categoryFilter)) {
             filters.add(categoryFilter);
         }
-        setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+        setUpExpenseTable(expensesShown());
     }
 
     /*
@@ -298,7 +317,7 @@ public class SpendingTrackerTab extends Tab {
             if (!filters.contains(categoryFilter)) {
                 filters.add(categoryFilter);
             }
-            setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+            setUpExpenseTable(expensesShown());
         }
     }
 
@@ -307,7 +326,7 @@ public class SpendingTrackerTab extends Tab {
      * EFFECTS:  keeps the expense table and the compare table in the Compare Tab up to date
      */
     private void update() {
-        setUpExpenseTable(getController().getSpendingTracker().filter(filters));
+        setUpExpenseTable(expensesShown());
         getController().updateCompareTable();
     }
 
@@ -349,7 +368,7 @@ public class SpendingTrackerTab extends Tab {
     private void editExpense() {
         int selectedRow = expenseTable.getSelectedRow();
         if (selectedRow != -1) {
-            Expense expenseToEdit = getController().getSpendingTracker().filter(filters).get(selectedRow);
+            Expense expenseToEdit = expensesShown().get(selectedRow);
             EditExpenseDialog editDialog = new EditExpenseDialog(getController(), expenseToEdit);
             boolean actionDone = false;
             while (!actionDone) {
@@ -413,7 +432,7 @@ public class SpendingTrackerTab extends Tab {
             );
 
             if (response == JOptionPane.YES_OPTION) {
-                String id = getController().getSpendingTracker().filter(filters).get(selectedRow).getId();
+                String id = expensesShown().get(selectedRow).getId();
                 expenseTableModel.removeRow(selectedRow);
                 try {
                     getController().getSpendingTracker().deleteExpense(id);
@@ -429,4 +448,60 @@ public class SpendingTrackerTab extends Tab {
         getController().updateCompareTable();
     }
 
+    /*
+     * MODIFIES: this
+     * EFFECTS:  imports the expenses of a CSV file chosen through a file chooser, off the event dispatch thread, then
+     *           shows how many rows were imported, skipped or rejected
+     */
+    private void importCsv() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        importCsvButton.setEnabled(false);
+        new SwingWorker<ImportReport, Void>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                return new CsvImporter(getController().getSpendingTracker()).importFile(file);
+            }
+
+            @Override
+            protected void done() {
+                importCsvButton.setEnabled(true);
+                showImportReport(this);
+                update();
+            }
+        }.execute();
+    }
+
+    /*
+     * REQUIRES: importer is done
+     * EFFECTS:  shows the report of the import importer ran, or why it failed
+     */
+    private void showImportReport(SwingWorker<ImportReport, Void> importer) {
+        String message;
+        try {
+            ImportReport report = importer.get();
+            StringBuilder builder = new StringBuilder("Imported " + report.getImported() + " expenses.");
+            if (report.getResumedAfterRow() > 0) {
+                builder.append("\nResumed the import cut short after row ").append(report.getResumedAfterRow());
+            }
+            if (report.getSkipped() > 0) {
+                builder.append("\nSkipped ").append(report.getSkipped()).append(" rows already imported.");
+            }
+            List<ImportReport.Rejection> rejections = report.getRejections();
+            if (!rejections.isEmpty()) {
+                builder.append("\nRejected ").append(rejections.size()).append(" rows:");
+                for (ImportReport.Rejection rejection : rejections.subList(0, Math.min(10, rejections.size()))) {
+                    builder.append("\n").append(rejection);
+                }
+            }
+            message = builder.toString();
+        } catch (Exception e) {
+            message = "Could not import the file: " + (e.getCause() != null ? e.getCause() : e).getMessage();
+        }
+        JOptionPane.showMessageDialog(this, message, "Import CSV", JOptionPane.INFORMATION_MESSAGE);
+    }
 }
@@ -0,0 +1,125 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    private static final Path SPILL_FILE = Paths.get("./data/eventLog_t.spill");
+
+    EventLog testEventLog;
+
+    @BeforeEach
+    void setup() {
+        testEventLog = new EventLog(4, SPILL_FILE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        testEventLog.flush();
+        Files.deleteIfExists(SPILL_FILE);
+    }
+
+    @Test
+    void testLogEventWithinCapacity() {
+        testEventLog.logEvent(new Event("first"));
+        testEventLog.logEvent(new Event("second"));
+        List<String> descriptions = descriptionsOf(testEventLog);
+        assertEquals(2, descriptions.size());
+        assertEquals("first", descriptions.get(0));
+        assertEquals("second", descriptions.get(1));
+        assertFalse(Files.exists(SPILL_FILE));
+    }
+
+    @Test
+    void testLogEventSpillsOldestToFile() throws InterruptedException {
+        List<Event> logged = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            Event e = new Event(EventType.BUDGET_LIMIT_SET, 100.0 + i);
+            logged.add(e);
+            testEventLog.logEvent(e);
+        }
+        testEventLog.flush();
+        assertTrue(Files.exists(SPILL_FILE));
+        List<Event> iterated = new ArrayList<>();
+        for (Event e : testEventLog) {
+            iterated.add(e);
+        }
+        assertEquals(logged, iterated);
+    }
+
+    @Test
+    void testFailedSpillKeepsEventsInMemory() throws InterruptedException {
+        EventLog unwritableLog = new EventLog(4, Paths.get("./data/missing_t/eventLog_t.spill"));
+        for (int i = 0; i < 11; i++) {
+            unwritableLog.logEvent(new Event("event " + i));
+        }
+        unwritableLog.flush();
+        List<String> descriptions = descriptionsOf(unwritableLog);
+        assertEquals(11, descriptions.size());
+        for (int i = 0; i < 11; i++) {
+            assertEquals("event " + i, descriptions.get(i));
+        }
+    }
+
+    @Test
+    void testSpilledDescriptionWithLineBreaks() {
+        for (int i = 0; i < 5; i++) {
+            testEventLog.logEvent(new Event("line one\nline two \\n " + i));
+        }
+        List<String> descriptions = descriptionsOf(testEventLog);
+        assertEquals(5, descriptions.size());
+        assertEquals("line one\nline two \\n 0", descriptions.get(0));
+        assertEquals("line one\nline two \\n 4", descriptions.get(4));
+    }
+
+    @Test
+    void testLogEventFromManyThreads() throws InterruptedException {
+        EventLog concurrentLog = new EventLog(100, SPILL_FILE);
+        int threads = 4;
+        int eventsPerThread = 5000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "thread " + t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    concurrentLog.logEvent(new Event(name + ": " + i));
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        concurrentLog.flush();
+        int[] nextOfThread = new int[threads];
+        for (String description : descriptionsOf(concurrentLog)) {
+            int t = Integer.parseInt(description.substring("thread ".length(), description.indexOf(':')));
+            assertEquals("thread " + t + ": " + nextOfThread[t], description);
+            nextOfThread[t]++;
+        }
+        for (int t = 0; t < threads; t++) {
+            assertEquals(eventsPerThread, nextOfThread[t]);
+        }
+    }
+
+    private List<String> descriptionsOf(EventLog eventLog) {
+        List<String> descriptions = new ArrayList<>();
+        for (Event e : eventLog) {
+            descriptions.add(e.getDescription());
+        }
+        return descriptions;
+    }
+}
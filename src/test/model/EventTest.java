@@ -0,0 +1,48 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventTest {
+
+    @Test
+    void testMessageEvent() {
+        Event event = new Event("Event log cleared.");
+        assertEquals(EventType.MESSAGE, event.getType());
+        assertEquals("Event log cleared.", event.getDescription());
+        assertEquals(event.getTimestamp(), event.getDate().getTime());
+    }
+
+    @Test
+    void testExpenseAddedRendersLazily() {
+        Event event = new Event(EventType.EXPENSE_ADDED, "groceries", "safeway", 300.0,
+                LocalDate.of(2023, 8, 1), Category.FOOD);
+        assertArrayEquals(new Object[] {"groceries", "safeway", 300.0, LocalDate.of(2023, 8, 1), Category.FOOD},
+                event.getValues());
+        assertEquals("Expense 'groceries' from safeway purchased for $300.00 on Tue Aug 01 2023 with category "
+                + "'Food & Groceries' added to spending tracker", event.getDescription());
+        assertSame(event.getDescription(), event.getDescription());
+    }
+
+    @Test
+    void testBudgetItemLimitSet() {
+        Event event = new Event(EventType.BUDGET_ITEM_LIMIT_SET, Category.HOUSING, 1234.5);
+        assertEquals("Edited limit of budget item with category 'Housing' to $1234.50", event.getDescription());
+        assertTrue(event.toString().endsWith("\n" + event.getDescription()));
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        Event event = new Event(1000L, EventType.BUDGET_LIMIT_SET, 100.0);
+        Event same = new Event(1000L, EventType.MESSAGE, "Total limit of budget set to $100.00");
+        Event later = new Event(2000L, EventType.BUDGET_LIMIT_SET, 100.0);
+        assertEquals(event, same);
+        assertEquals(event.hashCode(), same.hashCode());
+        assertNotEquals(event, later);
+        assertNotEquals(event, null);
+        assertNotEquals(event, "Total limit of budget set to $100.00");
+    }
+}
@@ -7,10 +7,15 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Year;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,6 +94,51 @@ public class SpendingTrackerTest {
         }
     }
 
+    @Test
+    void testAddExpenseNotFinitePriceThrowsNotFiniteException() {
+        for (double price : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            try {
+                testSpendingTracker.addExpense(price, " ", " ", LocalDate.of(2023, 7, 7), Category.OTHER);
+                fail("A NotFiniteException should have been thrown!");
+            } catch (NotFiniteException e) {
+                assertEquals("Invalid: amount is not a finite number!", e.getMessage());
+            } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+            try {
+                testSpendingTracker.addExpense(new Expense(price, " ", " ", LocalDate.of(2023, 7, 7),
+                        Category.OTHER));
+                fail("A NotFiniteException should have been thrown!");
+            } catch (NotFiniteException e) {
+                assertEquals("Invalid: amount is not a finite number!", e.getMessage());
+            } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+        }
+        assertTrue(testSpendingTracker.getExpenses().isEmpty());
+        assertEquals(0, testSpendingTracker.totalOf(YearMonth.of(2023, 7), Category.OTHER));
+    }
+
+    @Test
+    void testEditPriceOfNotFiniteLeavesExpenseAsItWas() {
+        testAddExpenseOnce();
+        String id = testSpendingTracker.getExpenses().get(0).getId();
+        double price = testSpendingTracker.getExpenses().get(0).getPrice();
+        for (double newPrice : new double[] {Double.NaN, Double.POSITIVE_INFINITY}) {
+            try {
+                testSpendingTracker.editPriceOf(id, newPrice);
+                fail("A NotFiniteException should have been thrown!");
+            } catch (NotFiniteException e) {
+                assertEquals("Invalid: amount is not a finite number!", e.getMessage());
+            } catch (ZeroOrLessException | ExpenseDoesNotExistException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+        }
+        Expense expense = testSpendingTracker.getExpenses().get(0);
+        assertEquals(price, expense.getPrice());
+        assertEquals(price, testSpendingTracker.totalOf(YearMonth.from(expense.getDate()), expense.getCategory()));
+    }
+
     @Test
     void testAddExpenseEmptyDescriptionThrowsZeroLengthException() {
         try {
@@ -189,6 +239,63 @@ public class SpendingTrackerTest {
         }
     }
 
+    @Test
+    void testDeleteExpenseByIdAmongMany() {
+        for (int i = 1; i <= 50; i++) {
+            try {
+                testSpendingTracker.addExpense(i, " ", " ", LocalDate.of(2023, 7, 7), Category.OTHER);
+            } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+        }
+        Expense middle = testSpendingTracker.getExpenses().get(24);
+        try {
+            testSpendingTracker.deleteExpense(middle.getId());
+            testSpendingTracker.editPriceOf(testSpendingTracker.getExpenses().get(24).getId(), 500);
+        } catch (ZeroOrLessException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(49, testSpendingTracker.getExpenses().size());
+        assertFalse(testSpendingTracker.getExpenses().contains(middle));
+        assertEquals(500, testSpendingTracker.getExpenses().get(24).getPrice());
+        try {
+            testSpendingTracker.editPriceOf(middle.getId(), 10);
+            fail("An ExpenseDoesNotExistException should have been thrown!");
+        } catch (ExpenseDoesNotExistException e) {
+            assertEquals("The expense does not exist!", e.getMessage());
+        } catch (ZeroOrLessException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testAddExpenseSharesEqualValues() {
+        try {
+            testSpendingTracker.addExpense(10, new String("lunch"), new String("cafe"),
+                    LocalDate.of(2023, 7, 7), Category.FOOD);
+            testSpendingTracker.addExpense(12, new String("lunch"), new String("cafe"),
+                    LocalDate.of(2023, 7, 7), Category.FOOD);
+        } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        Expense first = testSpendingTracker.getExpenses().get(0);
+        Expense second = testSpendingTracker.getExpenses().get(1);
+        assertSame(first.getVendor(), second.getVendor());
+        assertSame(first.getDate(), second.getDate());
+    }
+
+    @Test
+    void testDeleteExpenseWithNonUUIDId() {
+        try {
+            testSpendingTracker.addExpense(new Expense(10, " ", " ", LocalDate.of(2023, 7, 7),
+                    Category.FOOD, "expense-1"));
+            testSpendingTracker.deleteExpense("expense-1");
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(0, testSpendingTracker.getExpenses().size());
+    }
+
     @Test
     void testEditPriceOfOnce() {
         testAddExpenseOnce();
@@ -563,6 +670,38 @@ public class SpendingTrackerTest {
         assertEquals(Category.OTHER, testSpendingTracker.getExpenses().get(0).getCategory());
     }
 
+    @Test
+    void testTotalOfAfterEdits() {
+        YearMonth july = YearMonth.of(2023, 7);
+        try {
+            testSpendingTracker.addExpense(0.1, " ", " ", LocalDate.of(2023, 7, 7), Category.FOOD);
+            testSpendingTracker.addExpense(0.2, " ", " ", LocalDate.of(2023, 7, 8), Category.FOOD);
+            testSpendingTracker.addExpense(5, " ", " ", LocalDate.of(2023, 7, 9), Category.HOUSING);
+        } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(0.3, testSpendingTracker.totalOf(july, Category.FOOD));
+        assertEquals(2, testSpendingTracker.countOf(july, Category.FOOD));
+        List<Expense> expenses = testSpendingTracker.getExpenses();
+        try {
+            testSpendingTracker.editPriceOf(expenses.get(2).getId(), 7);
+            testSpendingTracker.editCategoryOf(expenses.get(1).getId(), Category.HOUSING);
+            testSpendingTracker.editDateOf(expenses.get(0).getId(), LocalDate.of(2023, 8, 1));
+        } catch (ZeroOrLessException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(0, testSpendingTracker.totalOf(july, Category.FOOD));
+        assertEquals(0, testSpendingTracker.countOf(july, Category.FOOD));
+        assertEquals(7.2, testSpendingTracker.totalOf(july, Category.HOUSING));
+        assertEquals(0.1, testSpendingTracker.totalOf(YearMonth.of(2023, 8), Category.FOOD));
+        try {
+            testSpendingTracker.deleteExpense(expenses.get(0).getId());
+        } catch (ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(0, testSpendingTracker.countOf(YearMonth.of(2023, 8), Category.FOOD));
+    }
+
     @Test
     void testFilterEmpty() {
         testAddExpenseOnce();
@@ -700,6 +839,365 @@ public class SpendingTrackerTest {
         assertEquals(testSpendingTracker.getExpenses().get(0), filteredExpenses.get(0));
     }
 
+    @Test
+    void testFilterByDateAfterEditDateOf() {
+        testFilterByDateStartDateEndDate();
+        String id = testSpendingTracker.getExpenses().get(2).getId();
+        try {
+            testSpendingTracker.editDateOf(id, LocalDate.of(2023, 7, 2));
+            testSpendingTracker.editDateOf(testSpendingTracker.getExpenses().get(0).getId(),
+                    LocalDate.of(2023, 8, 1));
+        } catch (NullPointerException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 31)));
+        List<Expense> filteredExpenses = testSpendingTracker.filter(filters);
+        assertEquals(2, filteredExpenses.size());
+        assertEquals(testSpendingTracker.getExpenses().get(1), filteredExpenses.get(0));
+        assertEquals(testSpendingTracker.getExpenses().get(2), filteredExpenses.get(1));
+    }
+
+    @Test
+    void testFilterByDateInvertedRange() {
+        testAddExpenseOnce();
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 31), LocalDate.of(2023, 7, 1)));
+        assertEquals(0, testSpendingTracker.filter(filters).size());
+    }
+
+    @Test
+    void testFilterByOverlappingFilters() {
+        testFilterByDateStartDateEndDate();
+        Set<Category> categories = new HashSet<>();
+        categories.add(Category.FOOD);
+        categories.add(Category.OTHER);
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 9, 30)));
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 10), LocalDate.of(2023, 12, 31)));
+        filters.add(new FilterByCategories(categories));
+        filters.add(new FilterByCategories(Category.FOOD));
+        filters.add(e -> e.getPrice() < 100);
+        List<Expense> filteredExpenses = testSpendingTracker.filter(filters);
+        assertEquals(2, filteredExpenses.size());
+        assertEquals(testSpendingTracker.getExpenses().get(1), filteredExpenses.get(0));
+        assertEquals(testSpendingTracker.getExpenses().get(2), filteredExpenses.get(1));
+        filters.add(new FilterByCategories(Category.OTHER));
+        assertEquals(0, testSpendingTracker.filter(filters).size());
+    }
+
+    @Test
+    void testQuerySumCountAny() {
+        testFilterByDateStartDateEndDate();
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 31)));
+        assertEquals(testSpendingTracker.filter(filters),
+                testSpendingTracker.query(filters).collect(Collectors.toList()));
+        assertEquals(130, testSpendingTracker.sum(filters));
+        assertEquals(2, testSpendingTracker.count(filters));
+        assertTrue(testSpendingTracker.any(filters));
+        filters.add(new FilterByCategories(Category.HEALTH));
+        assertEquals(0, testSpendingTracker.sum(filters));
+        assertEquals(0, testSpendingTracker.count(filters));
+        assertFalse(testSpendingTracker.any(filters));
+        assertEquals(160, testSpendingTracker.sum(new ArrayList<>()));
+        assertEquals(3, testSpendingTracker.count(new ArrayList<>()));
+    }
+
+    @Test
+    void testQueryReadsIndexLazily() {
+        try {
+            for (int i = 0; i < 3000; i++) {
+                testSpendingTracker.addExpense(new Expense(1, "item " + i, " ", LocalDate.of(2023, 1 + i % 12, 1),
+                        Category.FOOD, "id" + i));
+            }
+            List<ExpenseFilter> filters = new ArrayList<>();
+            filters.add(new FilterByDate(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 6, 30)));
+            Iterator<Expense> matches = testSpendingTracker.query(filters).iterator();
+            assertEquals("id0", matches.next().getId());
+            testSpendingTracker.deleteExpense("id2993");
+            testSpendingTracker.addExpense(new Expense(1, "late", " ", LocalDate.of(2023, 1, 1), Category.FOOD));
+            List<String> ids = new ArrayList<>();
+            matches.forEachRemaining(e -> ids.add(e.getId()));
+            assertEquals(1498, ids.size());
+            assertEquals("id1", ids.get(0));
+            assertEquals("id2992", ids.get(ids.size() - 1));
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(testSpendingTracker.getExpense(ids.get(i - 1)).getSequence()
+                        < testSpendingTracker.getExpense(ids.get(i)).getSequence());
+            }
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testQueryAboveParallelThreshold() {
+        for (int i = 0; i < SpendingTracker.PARALLEL_THRESHOLD + 1000; i++) {
+            try {
+                testSpendingTracker.addExpense(new Expense(1 + i % 4, " ", " ",
+                        LocalDate.of(2023, 1 + i % 12, 1), i % 2 == 0 ? Category.FOOD : Category.OTHER));
+            } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+        }
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(e -> e.getPrice() > 2);
+        List<Expense> filteredExpenses = testSpendingTracker.filter(filters);
+        assertEquals(testSpendingTracker.count(filters), filteredExpenses.size());
+        assertEquals((SpendingTracker.PARALLEL_THRESHOLD + 1000) / 2, filteredExpenses.size());
+        assertEquals(filteredExpenses, testSpendingTracker.query(filters).collect(Collectors.toList()));
+        for (int i = 1; i < filteredExpenses.size(); i++) {
+            assertTrue(filteredExpenses.get(i - 1).getSequence() < filteredExpenses.get(i).getSequence());
+        }
+        Map<Category, Double> totals = testSpendingTracker.totalsByCategory(filters);
+        assertEquals(3.0 * (SpendingTracker.PARALLEL_THRESHOLD + 1000) / 4, totals.get(Category.FOOD));
+        assertEquals(4.0 * (SpendingTracker.PARALLEL_THRESHOLD + 1000) / 4, totals.get(Category.OTHER));
+        assertEquals(totals.get(Category.FOOD) + totals.get(Category.OTHER), testSpendingTracker.sum(filters));
+        assertTrue(testSpendingTracker.any(filters));
+    }
+
+    @Test
+    void testAddExpenses() {
+        testAddExpenseOnce();
+        List<Expense> batch = new ArrayList<>();
+        batch.add(new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD));
+        batch.add(new Expense(20, "b", "y", LocalDate.of(2023, 7, 8), Category.OTHER));
+        batch.add(new Expense(30, "c", new String("x"), LocalDate.of(2023, 8, 1), Category.FOOD));
+        try {
+            testSpendingTracker.addExpenses(batch);
+        } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(4, testSpendingTracker.getExpenses().size());
+        assertEquals(batch, testSpendingTracker.getExpenses().subList(1, 4));
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByDate(LocalDate.of(2023, 7, 7), LocalDate.of(2023, 7, 31)));
+        assertEquals(3, testSpendingTracker.filter(filters).size());
+        filters.add(new FilterByCategories(Category.FOOD));
+        assertEquals(batch.subList(0, 1), testSpendingTracker.filter(filters));
+        assertEquals(10, testSpendingTracker.totalOf(YearMonth.of(2023, 7), Category.FOOD));
+        assertEquals(30, testSpendingTracker.totalOf(YearMonth.of(2023, 8), Category.FOOD));
+        assertEquals(120, testSpendingTracker.totalOf(YearMonth.of(2023, 7), Category.OTHER));
+        assertSame(batch.get(0).getVendor(), batch.get(2).getVendor());
+    }
+
+    @Test
+    void testAddExpensesWithInvalidExpenseAddsNone() {
+        List<Expense> batch = new ArrayList<>();
+        batch.add(new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD));
+        batch.add(new Expense(20, "", "y", LocalDate.of(2023, 7, 8), Category.OTHER));
+        try {
+            testSpendingTracker.addExpenses(batch);
+            fail("A ZeroLengthException should have been thrown!");
+        } catch (ZeroLengthException e) {
+            assertEquals(0, testSpendingTracker.getExpenses().size());
+            assertEquals(0, testSpendingTracker.countOf(YearMonth.of(2023, 7), Category.FOOD));
+        } catch (ZeroOrLessException | NullPointerException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testAddExpenseWithExistingIdThrowsExpenseExistsException() {
+        try {
+            testSpendingTracker.addExpense(new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD, "id"));
+            testSpendingTracker.addExpense(new Expense(20, "b", "y", LocalDate.of(2023, 7, 8), Category.OTHER, "id"));
+            fail("An ExpenseExistsException should have been thrown!");
+        } catch (ExpenseExistsException e) {
+            assertEquals(1, testSpendingTracker.getExpenses().size());
+            assertEquals(10, testSpendingTracker.getExpense("id").getPrice());
+            assertEquals(0, testSpendingTracker.countOf(YearMonth.of(2023, 7), Category.OTHER));
+        } catch (ZeroOrLessException | ZeroLengthException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testAddSameExpenseTwiceKeepsItsSequence() {
+        Expense expense = new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD);
+        try {
+            testSpendingTracker.addExpense(expense);
+            testSpendingTracker.addExpense(new Expense(20, "b", "y", LocalDate.of(2023, 7, 7), Category.FOOD));
+            long sequence = expense.getSequence();
+            assertThrows(ExpenseExistsException.class, () -> testSpendingTracker.addExpense(expense));
+            assertEquals(sequence, expense.getSequence());
+            testSpendingTracker.deleteExpense(expense.getId());
+            assertEquals(1, testSpendingTracker.getExpenses().size());
+            List<ExpenseFilter> filters = new ArrayList<>();
+            filters.add(new FilterByDate(LocalDate.of(2023, 7, 7), LocalDate.of(2023, 7, 7)));
+            assertEquals(1, testSpendingTracker.filter(filters).size());
+            assertEquals(20, testSpendingTracker.sum(filters));
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testAddExpensesWithSharedIdAddsNone() {
+        List<Expense> batch = new ArrayList<>();
+        batch.add(new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD, "id"));
+        batch.add(new Expense(20, "b", "y", LocalDate.of(2023, 7, 8), Category.OTHER, "id"));
+        try {
+            testSpendingTracker.addExpenses(batch);
+            fail("An ExpenseExistsException should have been thrown!");
+        } catch (ExpenseExistsException e) {
+            assertEquals(0, testSpendingTracker.getExpenses().size());
+            assertEquals(0, testSpendingTracker.countOf(YearMonth.of(2023, 7), Category.FOOD));
+        } catch (ZeroOrLessException | ZeroLengthException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testGetExpensesIsReadOnlyCopy() {
+        testAddExpenseOnce();
+        List<Expense> expenses = testSpendingTracker.getExpenses();
+        assertThrows(UnsupportedOperationException.class, () -> expenses.remove(0));
+        addExpensesOf(Category.OTHER, 1);
+        assertEquals(1, expenses.size());
+        assertEquals(2, testSpendingTracker.getExpenses().size());
+    }
+
+    @Test
+    void testSnapshotIsNotChangedByEdits() {
+        testAddExpenseOnce();
+        String id = testSpendingTracker.getExpenses().get(0).getId();
+        List<Expense> snapshot = testSpendingTracker.snapshot();
+        try {
+            testSpendingTracker.editPriceOf(id, 12345);
+            testSpendingTracker.editVendorOf(id, "somewhere else");
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertEquals(id, snapshot.get(0).getId());
+        assertNotEquals(12345, snapshot.get(0).getPrice());
+        assertNotEquals("somewhere else", snapshot.get(0).getVendor());
+        assertEquals(12345, testSpendingTracker.getExpense(id).getPrice());
+    }
+
+    @Test
+    void testDeleteManyKeepsOrderAndIndexes() {
+        List<String> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                Expense e = new Expense(1 + i % 3, "item " + i, "store", LocalDate.of(2023, 1 + i % 12, 1 + i % 28),
+                        i % 2 == 0 ? Category.FOOD : Category.OTHER);
+                testSpendingTracker.addExpense(e);
+                ids.add(e.getId());
+            }
+            testSpendingTracker.editCategoryOf(ids.get(1), Category.FOOD);
+            testSpendingTracker.editDateOf(ids.get(4), LocalDate.of(2023, 2, 2));
+            for (int i = 0; i < 2000; i += 3) {
+                testSpendingTracker.deleteExpense(ids.get(i));
+            }
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        List<Expense> remaining = testSpendingTracker.getExpenses();
+        assertEquals(2000 - 667, remaining.size());
+        for (int i = 1; i < remaining.size(); i++) {
+            assertTrue(remaining.get(i - 1).getSequence() < remaining.get(i).getSequence());
+        }
+        List<ExpenseFilter> food = foodFilter();
+        List<Expense> expected = remaining.stream().filter(e -> e.getCategory() == Category.FOOD)
+                .collect(Collectors.toList());
+        assertEquals(expected, testSpendingTracker.filter(food));
+        assertEquals(ids.get(1), testSpendingTracker.filter(food).get(0).getId());
+        List<ExpenseFilter> secondOfFebruary = new ArrayList<>();
+        secondOfFebruary.add(new FilterByDate(LocalDate.of(2023, 2, 2), LocalDate.of(2023, 2, 2)));
+        List<Expense> sameDay = testSpendingTracker.filter(secondOfFebruary);
+        assertEquals(ids.get(1), sameDay.get(0).getId());
+        assertEquals(ids.get(4), sameDay.get(1).getId());
+        assertEquals(remaining.stream().filter(e -> e.getDate().equals(LocalDate.of(2023, 2, 2))).count(),
+                sameDay.size());
+        assertNull(testSpendingTracker.getExpense(ids.get(0)));
+    }
+
+    @Test
+    void testModificationCountsTrackChangedMonths() {
+        YearMonth july = YearMonth.of(2023, 7);
+        YearMonth august = YearMonth.of(2023, 8);
+        try {
+            testSpendingTracker.addExpense(new Expense(10, "coffee", "cafe", LocalDate.of(2023, 7, 3),
+                    Category.FOOD, "a"));
+            testSpendingTracker.addExpense(new Expense(20, "lunch", "deli", LocalDate.of(2023, 7, 1),
+                    Category.FOOD, "b"));
+            Map<YearMonth, Long> before = testSpendingTracker.modificationCounts();
+            assertEquals(1, before.size());
+            testSpendingTracker.editVendorOf("a", "cafe");
+            assertEquals(before, testSpendingTracker.modificationCounts());
+            testSpendingTracker.editDateOf("a", LocalDate.of(2023, 8, 3));
+            Map<YearMonth, Long> after = testSpendingTracker.modificationCounts();
+            assertNotEquals(before.get(july), after.get(july));
+            assertTrue(after.containsKey(august));
+            assertEquals(1, testSpendingTracker.snapshotOf(july).size());
+            assertEquals("a", testSpendingTracker.snapshotOf(august).get(0).getId());
+            assertTrue(testSpendingTracker.snapshotOf(YearMonth.of(2023, 9)).isEmpty());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testAddAndFilterFromManyThreads() throws InterruptedException {
+        int threads = 4;
+        int expensesPerThread = 2000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Category category = t % 2 == 0 ? Category.FOOD : Category.OTHER;
+            workers.add(new Thread(() -> addExpensesOf(category, expensesPerThread)));
+        }
+        AtomicBoolean readsConsistent = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> readUntilFull(threads * expensesPerThread, readsConsistent));
+        reader.start();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        reader.join();
+        assertTrue(readsConsistent.get());
+        assertEquals(threads * expensesPerThread, testSpendingTracker.getExpenses().size());
+        assertEquals(threads * expensesPerThread / 2, testSpendingTracker.filter(foodFilter()).size());
+        assertEquals(threads * expensesPerThread / 2,
+                testSpendingTracker.countOf(YearMonth.of(2023, 1), Category.OTHER));
+    }
+
+    private void addExpensesOf(Category category, int count) {
+        for (int i = 0; i < count; i++) {
+            try {
+                testSpendingTracker.addExpense(1, " ", " ", LocalDate.of(2023, 1, 1 + i % 28), category);
+            } catch (ZeroOrLessException | ZeroLengthException | NullPointerException e) {
+                fail(e.getMessage() + "\nThis exception should not have been thrown!");
+            }
+        }
+    }
+
+    private void readUntilFull(int total, AtomicBoolean readsConsistent) {
+        int seen = 0;
+        while (seen < total) {
+            List<Expense> food = testSpendingTracker.filter(foodFilter());
+            List<Expense> all = testSpendingTracker.getExpenses();
+            for (Expense e : food) {
+                if (e.getCategory() != Category.FOOD) {
+                    readsConsistent.set(false);
+                }
+            }
+            if (all.size() < seen || food.size() > all.size()) {
+                readsConsistent.set(false);
+            }
+            seen = all.size();
+        }
+    }
+
+    private List<ExpenseFilter> foodFilter() {
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByCategories(Category.FOOD));
+        return filters;
+    }
+
     @Test
     void testFilterByDateNullStartDate() {
         List<ExpenseFilter> filters = new ArrayList<>();
@@ -775,6 +1273,29 @@ public class SpendingTrackerTest {
         assertEquals(testSpendingTracker.getExpenses().get(2), filteredExpenses.get(2));
     }
 
+    @Test
+    void testFilterByCategoryAfterEditCategoryOf() {
+        testAddExpenseMultipleTimes();
+        String id = testSpendingTracker.getExpenses().get(1).getId();
+        try {
+            testSpendingTracker.editCategoryOf(id, Category.OTHER);
+        } catch (NullPointerException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        List<ExpenseFilter> filters = new ArrayList<>();
+        filters.add(new FilterByCategories(Category.OTHER));
+        List<Expense> filteredExpenses = testSpendingTracker.filter(filters);
+        assertEquals(2, filteredExpenses.size());
+        assertEquals(testSpendingTracker.getExpenses().get(0), filteredExpenses.get(0));
+        assertEquals(testSpendingTracker.getExpenses().get(1), filteredExpenses.get(1));
+        filters.clear();
+        filters.add(new FilterByCategories(Category.PERSONAL_CARE));
+        assertEquals(0, testSpendingTracker.filter(filters).size());
+        filters.clear();
+        filters.add(new FilterByCategories(new HashSet<>()));
+        assertEquals(0, testSpendingTracker.filter(filters).size());
+    }
+
     @Test
     void testFilterByCategoriesAddCategory() {
         testAddExpenseOnce();
@@ -885,4 +1406,89 @@ public class SpendingTrackerTest {
         assertEquals(testSpendingTracker.getExpenses().get(1), filteredExpenses.get(1));
     }
 
+    @Test
+    void testEditShowsThroughEveryView() {
+        Expense expense = new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD);
+        try {
+            testSpendingTracker.addExpense(expense);
+            Expense view = testSpendingTracker.getExpenses().get(0);
+            assertEquals(expense, view);
+            assertEquals(expense.hashCode(), view.hashCode());
+            testSpendingTracker.editPriceOf(expense.getId(), 12.34);
+            testSpendingTracker.editVendorOf(expense.getId(), "y");
+            testSpendingTracker.editDateOf(expense.getId(), LocalDate.of(2023, 8, 1));
+            testSpendingTracker.editCategoryOf(expense.getId(), Category.OTHER);
+            assertEquals(12.34, expense.getPrice());
+            assertEquals("y", view.getVendor());
+            assertEquals(LocalDate.of(2023, 8, 1), expense.getDate());
+            assertEquals(Category.OTHER, view.getCategory());
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testPriceNotInCentsAndFarDateKeptExactly() {
+        Expense expense = new Expense(10.005, "a", "x", LocalDate.of(6000000, 1, 1), Category.FOOD);
+        try {
+            testSpendingTracker.addExpense(expense);
+            testSpendingTracker.addExpense(new Expense(0.1, "b", "x", LocalDate.of(-6000000, 1, 1), Category.FOOD));
+            assertEquals(10.005, testSpendingTracker.getExpenses().get(0).getPrice());
+            assertEquals(LocalDate.of(6000000, 1, 1), testSpendingTracker.getExpenses().get(0).getDate());
+            assertEquals(0.1, testSpendingTracker.getExpenses().get(1).getPrice());
+            assertEquals(LocalDate.of(-6000000, 1, 1), testSpendingTracker.getExpenses().get(1).getDate());
+            testSpendingTracker.editPriceOf(expense.getId(), 10.01);
+            assertEquals(10.01, expense.getPrice());
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testManyAddsAndDeletesKeepEveryIdFound() {
+        List<Expense> added = new ArrayList<>();
+        try {
+            for (int i = 0; i < 500; i++) {
+                Expense expense = new Expense(i + 1, "a" + i, "x", LocalDate.of(2023, 7, 1 + i % 28), Category.FOOD);
+                testSpendingTracker.addExpense(expense);
+                added.add(expense);
+            }
+            for (int i = 0; i < added.size(); i += 3) {
+                testSpendingTracker.deleteExpense(added.get(i).getId());
+            }
+            for (int i = 0; i < added.size(); i++) {
+                String id = added.get(i).getId();
+                if (i % 3 == 0) {
+                    assertThrows(ExpenseDoesNotExistException.class, () -> testSpendingTracker.deleteExpense(id));
+                } else {
+                    testSpendingTracker.editPriceOf(id, i + 2);
+                }
+            }
+            assertEquals(333, testSpendingTracker.getExpenses().size());
+            assertEquals(3, testSpendingTracker.getExpenses().get(0).getPrice());
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testDeletedExpenseKeepsItsDetails() {
+        Expense expense = new Expense(10, "a", "x", LocalDate.of(2023, 7, 7), Category.FOOD);
+        try {
+            testSpendingTracker.addExpense(expense);
+            testSpendingTracker.addExpense(new Expense(20, "b", "y", LocalDate.of(2023, 7, 8), Category.OTHER));
+            testSpendingTracker.deleteExpense(expense.getId());
+            assertEquals(10, expense.getPrice());
+            assertEquals("a", expense.getDescription());
+            assertEquals("x", expense.getVendor());
+            assertEquals(LocalDate.of(2023, 7, 7), expense.getDate());
+            assertEquals(Category.FOOD, expense.getCategory());
+            testSpendingTracker.addExpense(expense);
+            assertEquals(2, testSpendingTracker.getExpenses().size());
+            assertEquals(expense, testSpendingTracker.getExpenses().get(1));
+        } catch (ZeroOrLessException | ZeroLengthException | ExpenseDoesNotExistException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
 }
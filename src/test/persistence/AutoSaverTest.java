@@ -0,0 +1,114 @@
+package persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutoSaverTest {
+
+    static final String PATHNAME = "autoSaver_t.json";
+    static final Path FILE = Paths.get("./data/" + PATHNAME);
+
+    private AtomicInteger snapshots;
+    private AtomicInteger saves;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        Files.deleteIfExists(FILE);
+        snapshots = new AtomicInteger();
+        saves = new AtomicInteger();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(FILE);
+    }
+
+    @Test
+    void testRequestsCoalesce() {
+        AutoSaver autoSaver = new AutoSaver(PATHNAME, this::snapshot, saves::incrementAndGet, 200);
+        try {
+            Future<?> save = autoSaver.request();
+            for (int i = 0; i < 10; i++) {
+                assertSame(save, autoSaver.request());
+            }
+            save.get(10, TimeUnit.SECONDS);
+            assertEquals(1, snapshots.get());
+            assertEquals(1, saves.get());
+            assertEquals("{\"snapshot\":1}", PersistenceManager.read(PATHNAME));
+            autoSaver.close();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveNowDoesNotWaitForDebounce() {
+        AutoSaver autoSaver = new AutoSaver(PATHNAME, this::snapshot, saves::incrementAndGet, 3_600_000);
+        try {
+            autoSaver.request();
+            autoSaver.saveNow().get(10, TimeUnit.SECONDS);
+            assertEquals(1, snapshots.get());
+            assertTrue(Files.exists(FILE));
+            autoSaver.close();
+            assertEquals(1, saves.get());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testCloseDropsRequestStillWaiting() {
+        AutoSaver autoSaver = new AutoSaver(PATHNAME, this::snapshot, saves::incrementAndGet, 3_600_000);
+        try {
+            autoSaver.request();
+            autoSaver.close();
+            assertEquals(0, snapshots.get());
+            assertFalse(Files.exists(FILE));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testFailedSaveKeepsOldFile() {
+        AutoSaver autoSaver = new AutoSaver(PATHNAME, () -> file -> PersistenceManager.writeJson(file, writer -> {
+            writer.object().key("half");
+            throw new IllegalStateException("failed halfway");
+        }), saves::incrementAndGet, 0);
+        try {
+            Files.write(FILE, "{\"old\":true}".getBytes());
+            autoSaver.saveNow().get(10, TimeUnit.SECONDS);
+            fail("An ExecutionException should have been thrown!");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        try {
+            assertEquals("{\"old\":true}", PersistenceManager.read(PATHNAME));
+            assertEquals(0, saves.get());
+            assertFalse(Files.exists(Paths.get("./data/" + PATHNAME + ".tmp")));
+            autoSaver.close();
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    SnapshotWriter snapshot() {
+        int n = snapshots.incrementAndGet();
+        return file -> PersistenceManager.writeJson(file,
+                writer -> writer.object().key("snapshot").value(n).endObject());
+    }
+}
@@ -0,0 +1,217 @@
+package persistence;
+
+import model.Budget;
+import model.BudgetItem;
+import model.Category;
+import model.Expense;
+import model.SpendingTracker;
+import model.exceptions.ZeroOrLessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotTest {
+
+    static final String JSON_PATHNAME = "binarySnapshot_t.json";
+    static final String BINARY_PATHNAME = "binarySnapshot_t.bin";
+
+    private Budget budget;
+    private SpendingTracker spendingTracker;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            budget = new Budget(1200);
+            budget.addBudgetItem(new BudgetItem(450.5, Category.HOUSING));
+            budget.addBudgetItem(new BudgetItem(100, Category.FOOD));
+            spendingTracker = new SpendingTracker();
+            spendingTracker.addExpenses(Arrays.asList(
+                    new Expense(19.99, "groceries", "safeway", LocalDate.of(2023, 7, 16), Category.FOOD,
+                            "c31071bd-3a82-4e14-8f27-ee8675a599d5"),
+                    new Expense(1.0 / 3, "a third", "somewhere", LocalDate.of(1969, 12, 31), Category.OTHER,
+                            "not-a-uuid"),
+                    new Expense(0.29, "groceries", "safeway", LocalDate.of(2023, 7, 1), Category.FOOD,
+                            "C31071BD-3A82-4E14-8F27-EE8675A599D6"),
+                    new Expense(12345678.9, "rent \u2013 \u00fcn\u00efcode", "landlord", LocalDate.of(2999, 1, 1),
+                            Category.PERSONAL_CARE)));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        for (String pathname : new String[]{JSON_PATHNAME, BINARY_PATHNAME}) {
+            Files.deleteIfExists(Paths.get("./data/" + pathname));
+        }
+    }
+
+    @Test
+    void testRoundTripMatchesJson() {
+        try {
+            PersistenceManager.saveEasyBudget(budget, spendingTracker, JSON_PATHNAME);
+            PersistenceManager.saveEasyBudgetBinary(budget, spendingTracker, BINARY_PATHNAME);
+            assertFalse(BinarySnapshot.isBinary(Paths.get("./data/" + JSON_PATHNAME)));
+            assertTrue(BinarySnapshot.isBinary(Paths.get("./data/" + BINARY_PATHNAME)));
+
+            Budget jsonBudget = PersistenceManager.loadBudget(JSON_PATHNAME);
+            Budget binaryBudget = PersistenceManager.loadBudget(BINARY_PATHNAME);
+            assertTrue(jsonBudget.saveToJson().similar(binaryBudget.saveToJson()));
+            assertTrue(budget.saveToJson().similar(binaryBudget.saveToJson()));
+
+            List<Expense> jsonExpenses = PersistenceManager.loadSpendingTracker(JSON_PATHNAME).getExpenses();
+            List<Expense> binaryExpenses = PersistenceManager.loadSpendingTracker(BINARY_PATHNAME).getExpenses();
+            assertEquals(spendingTracker.getExpenses().size(), binaryExpenses.size());
+            for (int i = 0; i < binaryExpenses.size(); i++) {
+                assertTrue(jsonExpenses.get(i).saveToJson().similar(binaryExpenses.get(i).saveToJson()));
+                assertTrue(spendingTracker.getExpenses().get(i).saveToJson()
+                        .similar(binaryExpenses.get(i).saveToJson()));
+            }
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReadAcrossManyMappedWindows() {
+        try {
+            PersistenceManager.saveEasyBudgetBinary(budget, spendingTracker, BINARY_PATHNAME);
+            Path file = Paths.get("./data/" + BINARY_PATHNAME);
+            List<Expense> whole = BinarySnapshot.readSpendingTracker(file).getExpenses();
+            for (long window : new long[]{1, 3, 16}) {
+                List<Expense> windowed = BinarySnapshot.readSpendingTracker(file, window).getExpenses();
+                assertEquals(whole.size(), windowed.size());
+                for (int i = 0; i < whole.size(); i++) {
+                    assertTrue(whole.get(i).saveToJson().similar(windowed.get(i).saveToJson()));
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        try {
+            for (int i = 0; i < 1000; i++) {
+                spendingTracker.addExpense(new Expense(10 + i, "coffee", "cafe", LocalDate.of(2023, 1, 1)
+                        .plusDays(i), Category.FOOD));
+            }
+            PersistenceManager.saveEasyBudget(budget, spendingTracker, JSON_PATHNAME);
+            PersistenceManager.saveEasyBudgetBinary(budget, spendingTracker, BINARY_PATHNAME);
+            long jsonSize = Files.size(Paths.get("./data/" + JSON_PATHNAME));
+            long binarySize = Files.size(Paths.get("./data/" + BINARY_PATHNAME));
+            assertTrue(binarySize * 4 < jsonSize, binarySize + " vs " + jsonSize);
+            assertEquals(1004, PersistenceManager.loadSpendingTracker(BINARY_PATHNAME).getExpenses().size());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testTruncatedSnapshotThrowsIOException() {
+        try {
+            PersistenceManager.saveEasyBudgetBinary(budget, spendingTracker, BINARY_PATHNAME);
+            Path file = Paths.get("./data/" + BINARY_PATHNAME);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(IOException.class, () -> PersistenceManager.loadSpendingTracker(BINARY_PATHNAME));
+    }
+
+    @Test
+    void testCountPastEndOfFileThrowsIOException() {
+        byte[] header = {'E', 'Z', 'B', 'S', 1, 0x40, 0x59, 0, 0, 0, 0, 0, 0};
+        byte[] huge = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        try {
+            Path file = Paths.get("./data/" + BINARY_PATHNAME);
+            Files.write(file, concat(header, huge));
+            assertThrows(IOException.class, () -> PersistenceManager.loadBudget(BINARY_PATHNAME));
+            Files.write(file, concat(header, new byte[]{0}, huge));
+            assertThrows(IOException.class, () -> PersistenceManager.loadSpendingTracker(BINARY_PATHNAME));
+            Files.write(file, concat(header, new byte[]{0, 1}, huge, new byte[]{'a'}));
+            assertThrows(IOException.class, () -> PersistenceManager.loadSpendingTracker(BINARY_PATHNAME));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testInvalidExpenseThrowsIOException() {
+        try {
+            BinarySnapshot.write(Paths.get("./data/" + BINARY_PATHNAME), budget, Arrays.asList(
+                    new Expense(0, "free", "somewhere", LocalDate.of(2023, 7, 16), Category.FOOD)));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(IOException.class, () -> PersistenceManager.loadSpendingTracker(BINARY_PATHNAME));
+    }
+
+    @Test
+    void testFuzzedSnapshotsThrowOnlyIOException() {
+        Path file = Paths.get("./data/" + BINARY_PATHNAME);
+        Random random = new Random(19);
+        try {
+            BinarySnapshot.write(file, budget, spendingTracker.getExpenses());
+            byte[] snapshot = Files.readAllBytes(file);
+            BinarySnapshot.writePartition(file, spendingTracker.getExpenses());
+            byte[] partition = Files.readAllBytes(file);
+            for (int i = 0; i < 2000; i++) {
+                byte[] bytes = i % 2 == 0 ? snapshot.clone() : partition.clone();
+                for (int flips = 1 + random.nextInt(3); flips > 0; flips--) {
+                    bytes[5 + random.nextInt(bytes.length - 5)] = (byte) random.nextInt(256);
+                }
+                Files.write(file, bytes);
+                try {
+                    if (i % 2 == 0) {
+                        BinarySnapshot.readBudget(file);
+                        BinarySnapshot.readSpendingTracker(file);
+                    } else {
+                        BinarySnapshot.readPartition(file);
+                    }
+                } catch (IOException | ZeroOrLessException e) {
+                    // a corrupt file is reported as one
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testUnknownVersionThrowsIOException() {
+        try {
+            Files.write(Paths.get("./data/" + BINARY_PATHNAME), new byte[]{'E', 'Z', 'B', 'S', 99});
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(IOException.class, () -> PersistenceManager.loadBudget(BINARY_PATHNAME));
+    }
+
+    byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] joined = new byte[length];
+        int at = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, at, part.length);
+            at += part.length;
+        }
+        return joined;
+    }
+}
@@ -6,13 +6,20 @@ import model.Category;
 import model.exceptions.ZeroOrLessException;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BudgetJsonTest {
 
+    static final String[] WRITTEN = {"budgetItemWritten_t.json", "budgetWritten_t.json"};
+
     Budget testBudget;
     BudgetItem testBudgetItem1;
     BudgetItem testBudgetItem2;
@@ -34,11 +41,17 @@ public class BudgetJsonTest {
         }
     }
 
+    @AfterEach
+    void runAfter() throws IOException {
+        for (String pathname : WRITTEN) {
+            Files.deleteIfExists(Paths.get("./data/" + pathname));
+        }
+    }
 
     @Test
     void testWriteBudgetItemToJson() {
         try {
-            PersistenceManager.write(testBudgetItem1, "budgetItem_t.json");
+            PersistenceManager.write(testBudgetItem1, WRITTEN[0]);
         } catch (Exception e) {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
@@ -75,7 +88,7 @@ public class BudgetJsonTest {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
         try {
-            PersistenceManager.write(testBudget, "budget_t.json");
+            PersistenceManager.write(testBudget, WRITTEN[1]);
         } catch (Exception e) {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
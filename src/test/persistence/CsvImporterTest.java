@@ -0,0 +1,321 @@
+package persistence;
+
+import model.Category;
+import model.Budget;
+import model.Expense;
+import model.LedgerListener;
+import model.SpendingTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvImporterTest {
+
+    static final Path FILE = Paths.get("./data/csvImporter_t.csv");
+    static final Path CHECKPOINT = ImportCheckpoint.fileOf(FILE);
+
+    private SpendingTracker spendingTracker;
+
+    @BeforeEach
+    void runBefore() {
+        spendingTracker = new SpendingTracker();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(FILE);
+        Files.deleteIfExists(CHECKPOINT);
+    }
+
+    @Test
+    void testImportQuotedFieldsAndCategories() {
+        try {
+            write("\uFEFFDate,Description,Vendor,Amount,Category\r\n",
+                    "2023-07-16,groceries,safeway,19.99,Food & Groceries\r\n",
+                    "2023-07-17,\"rent, July\",\"The \"\"Landlord\"\"\",\"$1,200.00\",HOUSING\r\n",
+                    "\r\n",
+                    "2023-07-18,\"two\nlines\",cafe,4.5,\r\n");
+            ImportReport report = new CsvImporter(spendingTracker).importFile(FILE);
+            assertEquals(3, report.getImported());
+            assertTrue(report.getRejections().isEmpty());
+            List<Expense> expenses = spendingTracker.getExpenses();
+            assertEquals(Category.FOOD, expenses.get(0).getCategory());
+            assertEquals("rent, July", expenses.get(1).getDescription());
+            assertEquals("The \"Landlord\"", expenses.get(1).getVendor());
+            assertEquals(1200, expenses.get(1).getPrice());
+            assertEquals(Category.HOUSING, expenses.get(1).getCategory());
+            assertEquals("two\nlines", expenses.get(2).getDescription());
+            assertEquals(Category.OTHER, expenses.get(2).getCategory());
+            assertEquals(LocalDate.of(2023, 7, 18), expenses.get(2).getDate());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testRejectsInvalidRowsAndGoesOn() {
+        try {
+            write("date,description,vendor,price\n",
+                    "2023-07-16,groceries,safeway,19.99\n",
+                    "2023-07-32,bad date,safeway,1\n",
+                    "2023-07-16,free,safeway,0\n",
+                    "2023-07-16,,safeway,3\n",
+                    "2023-07-16,too,many,fields,1\n",
+                    "2023-07-16,not a price,safeway,abc\n",
+                    "2023-07-16,coffee,cafe,4.5\n");
+            ImportReport report = new CsvImporter(spendingTracker).importFile(FILE);
+            assertEquals(2, report.getImported());
+            assertEquals(5, report.getRejections().size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i + 3, report.getRejections().get(i).getRow());
+                assertNotNull(report.getRejections().get(i).getReason());
+            }
+            assertEquals("2023-07-16,free,safeway,0", report.getRejections().get(1).getRecord());
+            assertEquals("coffee", spendingTracker.getExpenses().get(1).getDescription());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testRejectsAmountsThatAreNotFinite() {
+        try {
+            write("date,description,vendor,price\n",
+                    "2023-07-16,not a number,safeway,NaN\n",
+                    "2023-07-16,infinite,safeway,Infinity\n",
+                    "2023-07-16,too big,safeway,1e999\n",
+                    "2023-07-16,coffee,cafe,4.5\n");
+            ImportReport report = new CsvImporter(spendingTracker).importFile(FILE);
+            assertEquals(1, report.getImported());
+            assertEquals(3, report.getRejections().size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i + 2, report.getRejections().get(i).getRow());
+                assertTrue(report.getRejections().get(i).getReason().startsWith("Invalid amount"));
+            }
+            assertEquals(4.5, spendingTracker.totalOf(YearMonth.of(2023, 7), Category.OTHER));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testManyChunksCommitInFileOrder() {
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add("date,description,vendor,price\n");
+            for (int i = 0; i < 5000; i++) {
+                lines.add(i % 97 == 0 ? "not a row\n" : "2023-07-16,item " + i + ",store,1." + i % 10 + "\n");
+            }
+            write(lines.toArray(new String[0]));
+            ImportReport report = new CsvImporter(spendingTracker, 4, 7).importFile(FILE);
+            assertEquals(5000 - 52, report.getImported());
+            assertEquals(52, report.getRejections().size());
+            List<Expense> expenses = spendingTracker.getExpenses();
+            int last = -1;
+            for (Expense e : expenses) {
+                int i = Integer.parseInt(e.getDescription().substring(5));
+                assertTrue(i > last);
+                last = i;
+            }
+            long row = 0;
+            for (ImportReport.Rejection rejection : report.getRejections()) {
+                assertTrue(rejection.getRow() > row);
+                row = rejection.getRow();
+            }
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testMissingColumnThrowsIOException() {
+        try {
+            write("date,description,price\n", "2023-07-16,groceries,19.99\n");
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(IOException.class, () -> new CsvImporter(spendingTracker).importFile(FILE));
+        assertTrue(spendingTracker.getExpenses().isEmpty());
+    }
+
+    @Test
+    void testImportingTwiceAddsNothingTwice() {
+        try {
+            writeRows(20);
+            assertEquals(20, new CsvImporter(spendingTracker, 2, 3).importFile(FILE).getImported());
+            assertFalse(Files.exists(CHECKPOINT));
+            ImportReport report = new CsvImporter(spendingTracker, 2, 3).importFile(FILE);
+            assertEquals(0, report.getImported());
+            assertEquals(20, report.getSkipped());
+            assertEquals(20, spendingTracker.getExpenses().size());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSameRowsOfFileOfSameNameInOtherDirectoryAreImported() {
+        Path other = Paths.get("./data/csvImporter_t/csvImporter_t.csv");
+        try {
+            writeRows(20);
+            Files.createDirectories(other.getParent());
+            Files.copy(FILE, other);
+            assertEquals(20, new CsvImporter(spendingTracker, 2, 3).importFile(FILE).getImported());
+            ImportReport report = new CsvImporter(spendingTracker, 2, 3).importFile(other);
+            assertEquals(20, report.getImported());
+            assertEquals(0, report.getSkipped());
+            assertEquals(40, spendingTracker.getExpenses().size());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        } finally {
+            try {
+                Files.deleteIfExists(other);
+                Files.deleteIfExists(other.getParent());
+            } catch (IOException e) {
+                fail(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void testResumesAfterLastCheckpointedChunk() {
+        try {
+            writeRows(100);
+            crashImportAfter(35);
+            assertEquals(40, spendingTracker.getExpenses().size());
+            assertTrue(Files.exists(CHECKPOINT));
+            ImportReport report = new CsvImporter(spendingTracker, 2, 10).importFile(FILE);
+            assertEquals(31, report.getResumedAfterRow());
+            assertEquals(10, report.getSkipped());
+            assertEquals(60, report.getImported());
+            List<Expense> expenses = spendingTracker.getExpenses();
+            assertEquals(100, expenses.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("item " + i, expenses.get(i).getDescription());
+            }
+            assertFalse(Files.exists(CHECKPOINT));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testCheckpointIsKeptUnderDataAndRecordsOnlyProgress() {
+        try {
+            writeRows(100);
+            crashImportAfter(35);
+            assertEquals(Paths.get("./data"), CHECKPOINT.getParent());
+            assertFalse(Files.exists(Paths.get(FILE + ImportCheckpoint.SUFFIX)));
+            List<String> lines = Files.readAllLines(CHECKPOINT);
+            assertEquals(4, lines.size());
+            for (String line : lines.subList(1, lines.size())) {
+                assertTrue(line.length() < 100);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReaderFailingEndsImportWithItsFailure() {
+        try {
+            writeRows(100);
+            CsvImporter failing = new CsvImporter(spendingTracker, 2, 10) {
+                @Override
+                RecordReader newReader(Path file) throws IOException {
+                    return new RecordReader(file) {
+                        private int count;
+
+                        @Override
+                        String next() throws IOException {
+                            if (++count == 26) {
+                                throw new IllegalStateException("malformed row");
+                            }
+                            return super.next();
+                        }
+                    };
+                }
+            };
+            IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IllegalStateException.class, () -> failing.importFile(FILE)));
+            assertEquals("malformed row", e.getMessage());
+            assertEquals(0, spendingTracker.getExpenses().size() % 10);
+            assertTrue(spendingTracker.getExpenses().size() <= 20);
+            new CsvImporter(spendingTracker, 2, 10).importFile(FILE);
+            assertEquals(100, spendingTracker.getExpenses().size());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testCheckpointOfExpensesTrackerDoesNotHoldIsNotTrusted() {
+        try {
+            writeRows(100);
+            crashImportAfter(35);
+            SpendingTracker other = new SpendingTracker();
+            ImportReport report = new CsvImporter(other, 2, 10).importFile(FILE);
+            assertEquals(0, report.getResumedAfterRow());
+            assertEquals(100, report.getImported());
+            assertEquals(100, other.getExpenses().size());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testFieldsOf() {
+        assertEquals(Arrays.asList("a", "", "b,c", "d\"e", ""), CsvImporter.fieldsOf("a,,\"b,c\",\"d\"\"e\","));
+    }
+
+    void crashImportAfter(int saved) throws IOException {
+        LedgerListener crash = new LedgerListener() {
+            private int count;
+
+            @Override
+            public void expenseSaved(Expense e) {
+                if (++count == saved) {
+                    throw new IllegalStateException("crashed");
+                }
+            }
+
+            @Override
+            public void expenseDeleted(Expense e) {
+            }
+
+            @Override
+            public void budgetChanged(Budget b) {
+            }
+        };
+        spendingTracker.addListener(crash);
+        assertThrows(IllegalStateException.class, () -> new CsvImporter(spendingTracker, 2, 10).importFile(FILE));
+        spendingTracker.removeListener(crash);
+    }
+
+    void writeRows(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("date,description,vendor,price\n");
+        for (int i = 0; i < count; i++) {
+            lines.add("2023-07-16,item " + i + ",store,1.5\n");
+        }
+        write(lines.toArray(new String[0]));
+    }
+
+    void write(String... lines) throws IOException {
+        Files.write(FILE, String.join("", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,11 +5,16 @@ import model.exceptions.ZeroOrLessException;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,6 +58,15 @@ public class EasyBudgetJsonTest {
                 Category.HOUSING);
     }
 
+    @AfterEach
+    void runAfter() throws IOException {
+        try (DirectoryStream<Path> written = Files.newDirectoryStream(Paths.get("./data"), "*Written_t.json")) {
+            for (Path file : written) {
+                Files.delete(file);
+            }
+        }
+    }
+
     @Test
     void testSaveLoadInvalid() {
         try {
@@ -71,7 +85,7 @@ public class EasyBudgetJsonTest {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
         savedSpendingTracker = new SpendingTracker();
-        saveToAndLoadFromFile("applicationEmpty_t.json");
+        saveToAndLoadFromFile("applicationEmptyWritten_t.json");
         assertEquals(loadedBudget.getTotalLimit(), savedBudget.getTotalLimit());
         assertEquals(loadedBudget.getItems().size(), savedBudget.getItems().size());
         assertEquals(loadedSpendingTracker.getExpenses().size(), savedSpendingTracker.getExpenses().size());
@@ -100,7 +114,7 @@ public class EasyBudgetJsonTest {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
         savedSpendingTracker = new SpendingTracker();
-        saveToAndLoadFromFile("applicationBudgetOnly_t.json");
+        saveToAndLoadFromFile("applicationBudgetOnlyWritten_t.json");
         assertEquals(loadedBudget.getTotalLimit(), savedBudget.getTotalLimit());
         assertEquals(loadedBudget.getItems().size(), savedBudget.getItems().size());
         assertEquals(loadedBudget.getItems().get(0).getLimit(), budgetItem1.getLimit());
@@ -135,7 +149,7 @@ public class EasyBudgetJsonTest {
         } catch (Exception e) {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
-        saveToAndLoadFromFile("applicationSpendingTrackerOnly_t.json");
+        saveToAndLoadFromFile("applicationSpendingTrackerOnlyWritten_t.json");
         assertEquals(loadedBudget.getTotalLimit(), savedBudget.getTotalLimit());
         assertEquals(loadedBudget.getItems().size(), savedBudget.getItems().size());
         assertEquals(loadedSpendingTracker.getExpenses().size(), savedSpendingTracker.getExpenses().size());
@@ -197,7 +211,7 @@ public class EasyBudgetJsonTest {
         } catch (Exception e) {
             fail(e.getMessage() + "\nThis exception should not have been thrown!");
         }
-        saveToAndLoadFromFile("application_t.json");
+        saveToAndLoadFromFile("applicationWritten_t.json");
         assertEquals(loadedBudget.getTotalLimit(), savedBudget.getTotalLimit());
         assertEquals(loadedBudget.getItems().size(), savedBudget.getItems().size());
         assertEquals(loadedBudget.getItems().get(0).getLimit(), budgetItem1.getLimit());
@@ -229,7 +243,7 @@ public class EasyBudgetJsonTest {
 
     @Test
     void testSaveLoadInvalidBudgetZeroLimit() {
-        String pathname = "applicationInvalidBudgetZeroLimit_t.json";
+        String pathname = "applicationInvalidBudgetZeroLimitWritten_t.json";
         JSONObject obj = new JSONObject();
         JSONObject budgetObj = new JSONObject();
         budgetObj.put("limit", 0);
@@ -260,7 +274,7 @@ public class EasyBudgetJsonTest {
 
     @Test
     void testSaveLoadInvalidBudgetNegativeLimit() {
-        String pathname = "applicationInvalidBudgetNegativeLimit_t.json";
+        String pathname = "applicationInvalidBudgetNegativeLimitWritten_t.json";
         JSONObject obj = new JSONObject();
         JSONObject budgetObj = new JSONObject();
         budgetObj.put("limit", -100);
@@ -291,7 +305,7 @@ public class EasyBudgetJsonTest {
 
     @Test
     void testSaveLoadInvalidBudgetDuplicateCategory() {
-        String pathname = "applicationInvalidBudgetDuplicateCategory_t.json";
+        String pathname = "applicationInvalidBudgetDuplicateCategoryWritten_t.json";
         JSONObject obj = new JSONObject();
         JSONObject budgetObj = new JSONObject();
         budgetObj.put("limit", 800);
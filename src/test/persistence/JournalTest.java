@@ -0,0 +1,232 @@
+package persistence;
+
+import model.Budget;
+import model.BudgetItem;
+import model.Category;
+import model.Expense;
+import model.SpendingTracker;
+import model.exceptions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    static final String PATHNAME = "journal_t.json";
+    static final String LEDGER = "journal_t";
+
+    private Budget budget;
+    private SpendingTracker spendingTracker;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            deleteFiles();
+            budget = new Budget(500);
+            spendingTracker = new SpendingTracker();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        deleteFiles();
+    }
+
+    @Test
+    void testOpenRecoversSessionCutShort() {
+        try {
+            Journal journal = Journal.start(PATHNAME, budget, spendingTracker);
+            makeChanges();
+            journal.flush();
+            Journal recovered = Journal.open(PATHNAME);
+            assertSameState(recovered);
+            journal.close();
+            recovered.close();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testOpenSkipsRecordCutShort() {
+        try {
+            Journal journal = Journal.start(PATHNAME, budget, spendingTracker);
+            makeChanges();
+            journal.close();
+            Files.write(Paths.get("./data/" + PATHNAME + ".journal"), "{\"expense\":{\"id\":\"a\",\"pri".getBytes(),
+                    StandardOpenOption.APPEND);
+            journal = Journal.open(PATHNAME);
+            assertSameState(journal);
+            journal.getSpendingTracker().deleteExpense("c31071bd-3a82-4e14-8f27-ee8675a599d5");
+            journal.close();
+            journal = Journal.open(PATHNAME);
+            assertEquals(1, journal.getSpendingTracker().getExpenses().size());
+            journal.close();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testStartWritesBaseSnapshotOnce() {
+        try {
+            assertFalse(Journal.hasSession(PATHNAME));
+            for (int i = 0; i < 100; i++) {
+                spendingTracker.addExpense(new Expense(i + 1, "item " + i, "store", LocalDate.of(2023, 7, 1),
+                        Category.OTHER));
+            }
+            Journal journal = Journal.start(PATHNAME, budget, spendingTracker);
+            journal.flush();
+            assertTrue(Journal.hasSession(PATHNAME));
+            assertTrue(BinarySnapshot.isBinary(Paths.get("./data/" + PATHNAME + ".session")));
+            assertEquals(0, Files.size(Paths.get("./data/" + PATHNAME + ".journal")));
+            Journal recovered = Journal.open(PATHNAME);
+            assertEquals(100, recovered.getSpendingTracker().getExpenses().size());
+            assertEquals(500, recovered.getBudget().getTotalLimit());
+            recovered.close();
+            journal.discard();
+            assertFalse(Journal.hasSession(PATHNAME));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testCompactionFoldsJournalIntoSnapshot() {
+        try {
+            Journal journal = Journal.start(PATHNAME, budget, spendingTracker, 1);
+            makeChanges();
+            journal.compactNow();
+            assertTrue(BinarySnapshot.isBinary(Paths.get("./data/" + PATHNAME + ".session")));
+            assertFalse(Files.exists(Paths.get("./data/" + PATHNAME + ".journal.old")));
+            Journal recovered = Journal.open(PATHNAME, 1);
+            assertSameState(recovered);
+            journal.close();
+            recovered.close();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveThenDiscard() {
+        try {
+            Journal journal = Journal.start(PATHNAME, budget, spendingTracker);
+            makeChanges();
+            journal.save();
+            budget.setTotalLimit(900);
+            journal.discard();
+            assertFalse(Files.exists(Paths.get("./data/" + PATHNAME + ".journal")));
+            journal = Journal.open(PATHNAME);
+            assertSameState(journal);
+            journal.close();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveToPartitionedLedger() {
+        try {
+            Journal journal = Journal.start(LEDGER, budget, spendingTracker);
+            makeChanges();
+            journal.save();
+            journal.discard();
+            assertTrue(PartitionedLedger.isPartitioned(Paths.get("./data/" + LEDGER)));
+            journal = Journal.open(LEDGER);
+            assertSameState(journal);
+            journal.discard();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveToLedgerWritesOnlyChangedMonths() {
+        try {
+            spendingTracker.addExpense(new Expense(900, "rent", "landlord", LocalDate.of(2023, 6, 1),
+                    Category.HOUSING, "e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f"));
+            spendingTracker.addExpense(new Expense(50, "groceries", "safeway", LocalDate.of(2023, 7, 16),
+                    Category.FOOD, "c31071bd-3a82-4e14-8f27-ee8675a599d5"));
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, LEDGER);
+            Journal journal = Journal.open(LEDGER);
+            journal.getSpendingTracker().editPriceOf("c31071bd-3a82-4e14-8f27-ee8675a599d5", 60);
+            journal.save();
+            journal.discard();
+            assertTrue(Files.exists(Paths.get("./data/" + LEDGER + "/2023-06.1.bin")));
+            assertTrue(Files.exists(Paths.get("./data/" + LEDGER + "/2023-07.2.bin")));
+            assertFalse(Files.exists(Paths.get("./data/" + LEDGER + "/2023-07.1.bin")));
+            journal = Journal.open(LEDGER);
+            assertEquals(60, journal.getSpendingTracker().getExpense("c31071bd-3a82-4e14-8f27-ee8675a599d5")
+                    .getPrice());
+            assertEquals(2, journal.getSpendingTracker().getExpenses().size());
+            journal.discard();
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testOpenNoFileThrowsIOException() {
+        try {
+            Journal.open(PATHNAME);
+            fail("An IOException should have been thrown!");
+        } catch (IOException e) {
+            //
+        }
+    }
+
+    void makeChanges() throws Exception {
+        budget.setTotalLimit(800);
+        budget.addBudgetItem(new BudgetItem(300, Category.HOUSING));
+        spendingTracker.addExpense(new Expense(100, "something", "someone", LocalDate.of(2023, 7, 22),
+                Category.OTHER, "db56446d-a68a-4354-9b8c-96f3c0178042"));
+        spendingTracker.addExpense(new Expense(50, "groceries", "safeway", LocalDate.of(2023, 7, 16),
+                Category.FOOD, "c31071bd-3a82-4e14-8f27-ee8675a599d5"));
+        spendingTracker.addExpense(new Expense(300, "rent", "n/a", LocalDate.of(2023, 7, 1),
+                Category.HOUSING, "e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f"));
+        spendingTracker.editPriceOf("c31071bd-3a82-4e14-8f27-ee8675a599d5", 75);
+        spendingTracker.editVendorOf("c31071bd-3a82-4e14-8f27-ee8675a599d5", "save-on-foods");
+        spendingTracker.deleteExpense("e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f");
+    }
+
+    void assertSameState(Journal journal) {
+        assertEquals(800, journal.getBudget().getTotalLimit());
+        assertEquals(1, journal.getBudget().getItems().size());
+        assertEquals(300, journal.getBudget().getItems().get(0).getLimit());
+        SpendingTracker recovered = journal.getSpendingTracker();
+        assertEquals(2, recovered.getExpenses().size());
+        Expense groceries = recovered.getExpense("c31071bd-3a82-4e14-8f27-ee8675a599d5");
+        assertEquals(75, groceries.getPrice());
+        assertEquals("save-on-foods", groceries.getVendor());
+        assertNull(recovered.getExpense("e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f"));
+    }
+
+    void deleteFiles() throws IOException {
+        Path directory = Paths.get("./data/" + LEDGER);
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        for (String suffix : new String[]{"", ".session", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data/" + PATHNAME + suffix));
+            Files.deleteIfExists(Paths.get("./data/" + LEDGER + suffix));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package persistence;
+
+import model.Budget;
+import model.BudgetItem;
+import model.Category;
+import model.Expense;
+import model.ExpenseFilter;
+import model.FilterByCategories;
+import model.FilterByDate;
+import model.SpendingTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedLedgerTest {
+
+    static final String DIRNAME = "partitionedLedger_t";
+    static final Path DIRECTORY = Paths.get("./data/" + DIRNAME);
+
+    private Budget budget;
+    private SpendingTracker spendingTracker;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            deleteDirectory();
+            budget = new Budget(1200);
+            budget.addBudgetItem(new BudgetItem(300, Category.FOOD));
+            spendingTracker = new SpendingTracker();
+            spendingTracker.addExpense(new Expense(50, "groceries", "safeway", LocalDate.of(2023, 7, 16),
+                    Category.FOOD, "c31071bd-3a82-4e14-8f27-ee8675a599d5"));
+            spendingTracker.addExpense(new Expense(900, "rent", "landlord", LocalDate.of(2023, 6, 1),
+                    Category.HOUSING, "e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f"));
+            spendingTracker.addExpense(new Expense(4.5, "coffee", "cafe", LocalDate.of(2023, 7, 2),
+                    Category.FOOD, "db56446d-a68a-4354-9b8c-96f3c0178042"));
+            spendingTracker.addExpense(new Expense(20, "haircut", "salon", LocalDate.of(2022, 12, 31),
+                    Category.PERSONAL_CARE, "not-a-uuid"));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        deleteDirectory();
+    }
+
+    @Test
+    void testRoundTripKeepsOrderAdded() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            assertEquals(3, partitionFiles().size());
+            assertTrue(budget.saveToJson().similar(PersistenceManager.loadBudget(DIRNAME).saveToJson()));
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            assertEquals(54.5, loaded.totalOf(YearMonth.of(2023, 7), Category.FOOD));
+            assertSameExpenses(spendingTracker.getExpenses(), loaded.getExpenses());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testMigrateToPartitionedFromJson() {
+        try {
+            PersistenceManager.saveEasyBudget(budget, spendingTracker, DIRNAME + ".json");
+            assertTrue(PersistenceManager.migrateToPartitioned(DIRNAME + ".json", DIRNAME));
+            assertTrue(PartitionedLedger.isPartitioned(DIRECTORY));
+            assertTrue(Files.exists(Paths.get("./data/" + DIRNAME + ".json")));
+            assertSameExpenses(spendingTracker.getExpenses(),
+                    PersistenceManager.loadSpendingTracker(DIRNAME).getExpenses());
+            assertFalse(PersistenceManager.migrateToPartitioned(DIRNAME + ".json", DIRNAME));
+            Files.delete(Paths.get("./data/" + DIRNAME + ".json"));
+            assertFalse(PersistenceManager.migrateToPartitioned(DIRNAME + ".json", DIRNAME + "_none"));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testQueryLoadsOnlyMonthsItReaches() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            for (Path file : partitionFiles()) {
+                if (!file.getFileName().toString().startsWith("2023-07")) {
+                    Files.delete(file);
+                }
+            }
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            List<ExpenseFilter> july = Collections.singletonList(
+                    new FilterByDate(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 31)));
+            assertEquals(2, loaded.count(july));
+            assertEquals("groceries", loaded.filter(july).get(0).getDescription());
+            assertEquals(54.5, loaded.totalOf(YearMonth.of(2023, 7), Category.FOOD));
+            assertThrows(UncheckedIOException.class, loaded::getExpenses);
+            assertEquals(2, loaded.count(july));
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testChangesBeforeLoadingKeepOrderAdded() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            Expense added = new Expense(12, "lunch", "deli", LocalDate.of(2023, 7, 16), Category.FOOD);
+            loaded.addExpense(added);
+            spendingTracker.addExpense(new Expense(added));
+            loaded.editPriceOf("e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f", 950);
+            spendingTracker.editPriceOf("e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f", 950);
+            assertSameExpenses(spendingTracker.getExpenses(), loaded.getExpenses());
+            assertEquals(66.5, loaded.totalOf(YearMonth.of(2023, 7), Category.FOOD));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveReplacesPartitionsOfSaveBefore() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            spendingTracker.deleteExpense("not-a-uuid");
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            List<Path> files = partitionFiles();
+            assertEquals(2, files.size());
+            for (Path file : files) {
+                assertTrue(file.getFileName().toString().endsWith(".2.bin"));
+            }
+            assertSameExpenses(spendingTracker.getExpenses(),
+                    PersistenceManager.loadSpendingTracker(DIRNAME).getExpenses());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveChangesRewritesOnlyChangedMonths() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            PartitionedLedger ledger = PartitionedLedger.open(DIRNAME);
+            SpendingTracker loaded = ledger.getSpendingTracker();
+            loaded.editVendorOf("c31071bd-3a82-4e14-8f27-ee8675a599d5", "save-on-foods");
+            spendingTracker.editVendorOf("c31071bd-3a82-4e14-8f27-ee8675a599d5", "save-on-foods");
+            loaded.deleteExpense("not-a-uuid");
+            spendingTracker.deleteExpense("not-a-uuid");
+            budget.setTotalLimit(1500);
+            ledger.saveChanges(budget);
+            List<String> names = new ArrayList<>();
+            partitionFiles().forEach(file -> names.add(file.getFileName().toString()));
+            Collections.sort(names);
+            assertEquals(2, names.size());
+            assertEquals("2023-06.1.bin", names.get(0));
+            assertEquals("2023-07.2.bin", names.get(1));
+            ledger.saveChanges(budget);
+            assertEquals(2, partitionFiles().size());
+            assertTrue(Files.exists(DIRECTORY.resolve("2023-07.2.bin")));
+            assertEquals(1500, PersistenceManager.loadBudget(DIRNAME).getTotalLimit());
+            assertSameExpenses(spendingTracker.getExpenses(),
+                    PersistenceManager.loadSpendingTracker(DIRNAME).getExpenses());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testSaveChangesKeepsNewExpensesAfterOldOnes() {
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            PartitionedLedger ledger = PartitionedLedger.open(DIRNAME);
+            Expense added = new Expense(900, "rent", "landlord", LocalDate.of(2023, 6, 1), Category.HOUSING);
+            ledger.getSpendingTracker().addExpense(added);
+            spendingTracker.addExpense(new Expense(added));
+            ledger.saveChanges(budget);
+            assertSameExpenses(spendingTracker.getExpenses(),
+                    PersistenceManager.loadSpendingTracker(DIRNAME).getExpenses());
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testLoadsManyMonthsConcurrentlyInOrderAdded() {
+        try {
+            Random random = new Random(23);
+            for (int i = 0; i < 3000; i++) {
+                spendingTracker.addExpense(new Expense(1 + random.nextInt(10000) / 100.0, "item " + i % 7,
+                        "store " + i % 5, LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)),
+                        Category.values()[random.nextInt(Category.values().length)]));
+            }
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            List<ExpenseFilter> food = Collections.singletonList(
+                    new FilterByCategories(Collections.singleton(Category.FOOD)));
+            assertEquals(spendingTracker.filter(food).size(), loaded.filter(food).size());
+            assertSameExpenses(spendingTracker.filter(food), loaded.filter(food));
+            assertSameExpenses(spendingTracker.getExpenses(), loaded.getExpenses());
+            List<ExpenseFilter> year = Collections.singletonList(
+                    new FilterByDate(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)));
+            assertSameExpenses(spendingTracker.filter(year), loaded.filter(year));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testPartitionThatCannotBeReadLoadsNoMonth() {
+        SpendingTracker loaded = null;
+        try {
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+            Files.write(DIRECTORY.resolve("2023-06.1.bin"), new byte[]{'E', 'Z', 'B', 'P', 1, 0});
+            loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(UncheckedIOException.class, loaded::getExpenses);
+        assertEquals(54.5, loaded.totalOf(YearMonth.of(2023, 7), Category.FOOD));
+        assertEquals(1, loaded.countOf(YearMonth.of(2022, 12), Category.PERSONAL_CARE));
+    }
+
+    @Test
+    void testUnknownVersionThrowsIOException() {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Files.write(DIRECTORY.resolve(PartitionedLedger.MANIFEST), "{\"version\":99}".getBytes());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+        assertThrows(IOException.class, () -> PersistenceManager.loadSpendingTracker(DIRNAME));
+    }
+
+    void assertSameExpenses(List<Expense> expected, List<Expense> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i).saveToJson().similar(actual.get(i).saveToJson()));
+        }
+    }
+
+    List<Path> partitionFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(DIRECTORY, "*.bin")) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    void deleteDirectory() throws IOException {
+        Files.deleteIfExists(Paths.get("./data/" + DIRNAME + ".json"));
+        if (Files.isDirectory(DIRECTORY)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(DIRECTORY);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package persistence;
 
+import model.Budget;
+import model.BudgetItem;
 import model.Expense;
 import model.Category;
 import model.SpendingTracker;
@@ -7,20 +9,35 @@ import model.exceptions.CategoryNullException;
 import model.exceptions.DateNullException;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class SpendingTrackerJsonTest {
 
+    static final String[] WRITTEN = {"expenseWritten_t.json", "spendingTrackerWritten_t.json"};
+
+    @AfterEach
+    void runAfter() throws IOException {
+        for (String pathname : WRITTEN) {
+            Files.deleteIfExists(Paths.get("./data/" + pathname));
+        }
+    }
+
     @Test
     void testWriteReadExpenseJson() {
-        String pathname = "expense_t.json";
+        String pathname = WRITTEN[0];
         Expense testExpense1 = new Expense(100,
                 "something",
                 "someone",
@@ -50,7 +67,7 @@ public class SpendingTrackerJsonTest {
 
     @Test
     void testWriteReadSpendingTrackerJson() {
-        String pathname = "spendingTracker_t.json";
+        String pathname = WRITTEN[1];
         SpendingTracker testSpendingTracker = new SpendingTracker();
         Expense testExpense1 = new Expense(100,
                 "something",
@@ -237,4 +254,24 @@ public class SpendingTrackerJsonTest {
         }
     }
 
+    @Test
+    void testWriteJsonMatchesSaveToJson() {
+        SpendingTracker testSpendingTracker = new SpendingTracker();
+        try {
+            testSpendingTracker.addExpense(100, "say \"hi\"", "someone", LocalDate.of(2023, 7, 22), Category.OTHER);
+            testSpendingTracker.addExpense(12.5, "groceries", "safeway", LocalDate.of(2023, 7, 16), Category.FOOD);
+            Budget testBudget = new Budget(1000);
+            testBudget.addBudgetItem(new BudgetItem(300, Category.FOOD));
+            assertTrue(writtenJsonOf(testSpendingTracker).similar(testSpendingTracker.saveToJson()));
+            assertTrue(writtenJsonOf(testBudget).similar(testBudget.saveToJson()));
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    JSONObject writtenJsonOf(Saveable saveable) {
+        StringWriter out = new StringWriter();
+        saveable.writeJson(new JSONWriter(out));
+        return new JSONObject(out.toString());
+    }
 }
@@ -0,0 +1,103 @@
+package persistence;
+
+import model.Category;
+import model.SpendingTracker;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingJsonReaderTest {
+
+    static final String PATHNAME = "streamingJson_t.json";
+
+    @Test
+    void testReadSpendingTrackerAfterOtherMembers() {
+        writeFile("{\"budget\": {\"limit\": 500, \"items\": [{\"category\": \"Others\", \"limit\": 100}]},"
+                + " \"notes\": [\"a ] in a string\", {\"b\": \"}\"}, 1.5, true, null],"
+                + " \"spendingTracker\": {\"version\": 1, \"expenses\": ["
+                + "{\"date\": \"2023-07-22\", \"price\": 100, \"vendor\": \"someone\", \"description\": \"[x]\","
+                + " \"id\": \"db56446d-a68a-4354-9b8c-96f3c0178042\", \"category\": \"Others\"},"
+                + "{\"date\": \"2023-07-16\", \"price\": 0, \"vendor\": \"safeway\", \"description\": \"groceries\","
+                + " \"id\": \"c31071bd-3a82-4e14-8f27-ee8675a599d5\", \"category\": \"Food & Groceries\"},"
+                + "{\"date\": \"2023-07-01\", \"price\": 300, \"vendor\": \"n/a\", \"description\": \"rent\","
+                + " \"id\": \"e1c7a3a0-6e43-4c39-a0b6-1f7c3b1d2e4f\", \"category\": \"Housing\"}]}}");
+        try (StreamingJsonReader reader = new StreamingJsonReader(Paths.get("./data/" + PATHNAME))) {
+            SpendingTracker spendingTracker = reader.readSpendingTracker();
+            assertEquals(2, spendingTracker.getExpenses().size());
+            assertEquals("db56446d-a68a-4354-9b8c-96f3c0178042", spendingTracker.getExpenses().get(0).getId());
+            assertEquals("[x]", spendingTracker.getExpenses().get(0).getDescription());
+            assertEquals(LocalDate.of(2023, 7, 1), spendingTracker.getExpenses().get(1).getDate());
+            assertEquals(Category.HOUSING, spendingTracker.getExpenses().get(1).getCategory());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReadBudgetAfterSpendingTracker() {
+        writeFile("{\"spendingTracker\": {\"expenses\": [{\"date\": \"2023-07-22\", \"price\": 100,"
+                + " \"vendor\": \"}\", \"description\": \"{\", \"id\": \"1\", \"category\": \"Others\"}]},"
+                + " \"budget\": {\"limit\": 500, \"items\": []}}");
+        try (StreamingJsonReader reader = new StreamingJsonReader(Paths.get("./data/" + PATHNAME))) {
+            JSONObject budget = reader.readBudget();
+            assertEquals(500, budget.getDouble("limit"));
+            assertTrue(budget.getJSONArray("items").isEmpty());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReadSpendingTrackerNoExpenses() {
+        writeFile("{\"spendingTracker\": {\"expenses\": [ ]}}");
+        try (StreamingJsonReader reader = new StreamingJsonReader(Paths.get("./data/" + PATHNAME))) {
+            assertEquals(0, reader.readSpendingTracker().getExpenses().size());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReadSpendingTrackerMissingThrowsJSONException() {
+        writeFile("{\"budget\": {\"limit\": 500, \"items\": []}}");
+        try (StreamingJsonReader reader = new StreamingJsonReader(Paths.get("./data/" + PATHNAME))) {
+            reader.readSpendingTracker();
+            fail("A JSONException should have been thrown!");
+        } catch (JSONException e) {
+            assertEquals("JSONObject[\"spendingTracker\"] not found.", e.getMessage());
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testReadSpendingTrackerMalformedThrowsJSONException() {
+        writeFile("{\"spendingTracker\": {\"expenses\": [{\"price\": 1} {\"price\": 2}]}}");
+        try (StreamingJsonReader reader = new StreamingJsonReader(Paths.get("./data/" + PATHNAME))) {
+            reader.readSpendingTracker();
+            fail("A JSONException should have been thrown!");
+        } catch (JSONException e) {
+            //
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    void writeFile(String content) {
+        try {
+            FileWriter fileWriter = new FileWriter("./data/" + PATHNAME);
+            fileWriter.write(content);
+            fileWriter.flush();
+            fileWriter.close();
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ui.tabs;
+
+import model.Budget;
+import model.BudgetItem;
+import model.Category;
+import model.Expense;
+import model.ExpenseFilter;
+import model.FilterByCategories;
+import model.FilterByDate;
+import model.SpendingTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.PersistenceManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpendingTrackerTabTest {
+
+    static final String DIRNAME = "spendingTrackerTab_t";
+    static final Path DIRECTORY = Paths.get("./data/" + DIRNAME);
+
+    private LocalDate today;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            deleteDirectory();
+            today = LocalDate.now();
+            Budget budget = new Budget(1200);
+            budget.addBudgetItem(new BudgetItem(300, Category.FOOD));
+            SpendingTracker spendingTracker = new SpendingTracker();
+            spendingTracker.addExpense(new Expense(50, "groceries", "safeway", today, Category.FOOD));
+            spendingTracker.addExpense(new Expense(900, "rent", "landlord", LocalDate.of(2023, 6, 1),
+                    Category.HOUSING));
+            spendingTracker.addExpense(new Expense(4.5, "coffee", "cafe", LocalDate.of(2023, 7, 2),
+                    Category.FOOD));
+            PersistenceManager.saveEasyBudgetPartitioned(budget, spendingTracker, DIRNAME);
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        deleteDirectory();
+    }
+
+    @Test
+    void testStartupLeavesOtherMonthsUnloaded() {
+        try {
+            deletePartitionsExcept(YearMonth.from(today).toString());
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            Budget budget = PersistenceManager.loadBudget(DIRNAME);
+            List<Expense> shown = SpendingTrackerTab.expensesShown(loaded, new ArrayList<>());
+            assertEquals(1, shown.size());
+            assertEquals("groceries", shown.get(0).getDescription());
+            assertEquals(50, loaded.totalOf(YearMonth.now(), Category.FOOD));
+            assertEquals(-1, budget.compareToBudget(loaded, Category.FOOD));
+            List<ExpenseFilter> food = Collections.singletonList(
+                    new FilterByCategories(EnumSet.of(Category.FOOD)));
+            assertEquals(1, SpendingTrackerTab.expensesShown(loaded, food).size());
+            assertThrows(UncheckedIOException.class, loaded::getExpenses);
+        } catch (Exception e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    @Test
+    void testDateRangeChosenLoadsOnlyItsMonths() {
+        try {
+            deletePartitionsExcept("2023-07");
+            SpendingTracker loaded = PersistenceManager.loadSpendingTracker(DIRNAME);
+            List<ExpenseFilter> july = Collections.singletonList(
+                    new FilterByDate(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 31)));
+            List<Expense> shown = SpendingTrackerTab.expensesShown(loaded, july);
+            assertEquals(1, shown.size());
+            assertEquals("coffee", shown.get(0).getDescription());
+            assertThrows(UncheckedIOException.class, loaded::getExpenses);
+        } catch (IOException e) {
+            fail(e.getMessage() + "\nThis exception should not have been thrown!");
+        }
+    }
+
+    void deletePartitionsExcept(String month) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, "*.bin")) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().startsWith(month)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    void deleteDirectory() throws IOException {
+        if (Files.isDirectory(DIRECTORY)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(DIRECTORY);
+        }
+    }
+}